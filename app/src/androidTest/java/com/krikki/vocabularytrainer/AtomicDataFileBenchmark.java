@@ -0,0 +1,138 @@
+package com.krikki.vocabularytrainer;
+
+import android.content.Context;
+import android.util.Log;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Measures the cost of writing and reading words file through {@link AtomicDataFile} compared with
+ * writing it directly, as words were saved before. Times and throughput are written to log with
+ * tag "Benchmark".
+ * <p>
+ * Run on a device with {@code ./gradlew connectedAndroidTest}.
+ */
+public class AtomicDataFileBenchmark {
+    private static final String TAG = "Benchmark";
+    private static final String PLAIN_FILE = "benchmark_plain_words_file.bin";
+    private static final String ATOMIC_FILE = "benchmark_atomic_words_file.bin";
+    private static final int NUMBER_OF_WORDS = 50000;
+    private static final int RUNS = 5;
+
+    private Context context;
+    private AtomicDataFile atomicFile;
+    private List<Word> words;
+
+    @Before
+    public void createWords() throws Exception {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        atomicFile = new AtomicDataFile(context.getFileStreamPath(ATOMIC_FILE));
+        words = new ArrayList<>(NUMBER_OF_WORDS);
+        for (int i = 0; i < NUMBER_OF_WORDS; i++) {
+            Word word = new Word("word" + i + ",synonym" + i);
+            word.setId(Integer.toString(i));
+            word.setTranslatedWord("translation" + i);
+            word.setDescription("description of word number " + i);
+            word.setCategories("category" + i % 20);
+            for (int j = 0; j < i % 6; j++) {
+                word.addNewScore(j * 2);
+            }
+            words.add(word);
+        }
+    }
+
+    @After
+    public void deleteFiles() {
+        context.deleteFile(PLAIN_FILE);
+        atomicFile.delete();
+    }
+
+    @Test
+    public void writeAndReadWords() throws Exception {
+        // first run of each is not measured, so that both paths run compiled code
+        writePlain();
+        writeAtomic();
+        long[][] plain = new long[2][RUNS];
+        long[][] atomic = new long[2][RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            plain[0][run] = writePlain();
+            plain[1][run] = readPlain();
+            atomic[0][run] = writeAtomic();
+            atomic[1][run] = readAtomic();
+        }
+        log("Plain file", plain, context.getFileStreamPath(PLAIN_FILE).length());
+        log("AtomicDataFile", atomic, context.getFileStreamPath(ATOMIC_FILE).length());
+    }
+
+    /**
+     * @return time in nanoseconds
+     */
+    private long writePlain() throws Exception {
+        final long start = System.nanoTime();
+        try (FileOutputStream fos = context.openFileOutput(PLAIN_FILE, Context.MODE_PRIVATE)) {
+            BinaryWordFormat.write(words, fos);
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * @return time in nanoseconds
+     */
+    private long writeAtomic() throws Exception {
+        final long start = System.nanoTime();
+        atomicFile.write(out -> BinaryWordFormat.write(words, out));
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * @return time in nanoseconds
+     */
+    private long readPlain() throws Exception {
+        final long start = System.nanoTime();
+        List<Word> readWords;
+        try (FileInputStream fis = context.openFileInput(PLAIN_FILE);
+             FileChannel channel = fis.getChannel()) {
+            readWords = BinaryWordFormat.read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+        final long time = System.nanoTime() - start;
+        assertEquals(NUMBER_OF_WORDS, readWords.size());
+        return time;
+    }
+
+    /**
+     * @return time in nanoseconds
+     */
+    private long readAtomic() throws Exception {
+        final long start = System.nanoTime();
+        List<Word> readWords = BinaryWordFormat.read(atomicFile.read());
+        final long time = System.nanoTime() - start;
+        assertEquals(NUMBER_OF_WORDS, readWords.size());
+        return time;
+    }
+
+    private static void log(String name, long[][] results, long fileLength) {
+        final long write = median(results[0]);
+        final long read = median(results[1]);
+        Log.i(TAG, String.format("%s, %d words (%.1f MB): write %.1f ms (%.1f MB/s), read %.1f ms (%.1f MB/s) (medians of %d runs)",
+                name, NUMBER_OF_WORDS, fileLength / 1e6, write / 1e6, fileLength * 1e3 / write, read / 1e6, fileLength * 1e3 / read, RUNS));
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
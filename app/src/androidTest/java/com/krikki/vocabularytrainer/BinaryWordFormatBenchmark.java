@@ -0,0 +1,128 @@
+package com.krikki.vocabularytrainer;
+
+import android.content.Context;
+import android.util.Log;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares loading words from {@link BinaryWordFormat} with streaming them from JSON file, which
+ * was done at every start of the app before. Load times and sizes of both files are written to log
+ * with tag "Benchmark".
+ * <p>
+ * Run on a device with {@code ./gradlew connectedAndroidTest}.
+ */
+public class BinaryWordFormatBenchmark {
+    private static final String TAG = "Benchmark";
+    private static final String JSON_FILE = "benchmark_words_file";
+    private static final String BINARY_FILE = "benchmark_words_file.bin";
+    private static final int NUMBER_OF_WORDS = 50000;
+    private static final int RUNS = 5;
+
+    private Context context;
+    private DataStorageManager storageManager;
+
+    @Before
+    public void writeWords() throws Exception {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        storageManager = new DataStorageManager(context);
+        List<Word> words = createWords(NUMBER_OF_WORDS);
+        try (Writer writer = new OutputStreamWriter(context.openFileOutput(JSON_FILE, Context.MODE_PRIVATE))) {
+            writer.write(storageManager.convertToJson(words));
+        }
+        try (FileOutputStream fos = context.openFileOutput(BINARY_FILE, Context.MODE_PRIVATE)) {
+            BinaryWordFormat.write(words, fos);
+        }
+    }
+
+    @After
+    public void deleteWords() {
+        context.deleteFile(JSON_FILE);
+        context.deleteFile(BINARY_FILE);
+    }
+
+    @Test
+    public void loadWords() throws Exception {
+        // first run of each is not measured, so that both paths run compiled code
+        loadFromJson();
+        loadFromBinary();
+        long[] json = new long[RUNS];
+        long[] binary = new long[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            json[run] = loadFromJson();
+            binary[run] = loadFromBinary();
+        }
+        log("JSON", json, JSON_FILE);
+        log("BinaryWordFormat", binary, BINARY_FILE);
+    }
+
+    /**
+     * @return time until all words are loaded in nanoseconds
+     */
+    private long loadFromJson() throws Exception {
+        final long start = System.nanoTime();
+        List<Word> words = storageManager.convertToListOfWords(context.openFileInput(JSON_FILE));
+        final long time = System.nanoTime() - start;
+        assertEquals(NUMBER_OF_WORDS, words.size());
+        return time;
+    }
+
+    /**
+     * Reads memory mapped file, the same way as words file is read at start of the app.
+     * @return time until all words are loaded in nanoseconds
+     */
+    private long loadFromBinary() throws Exception {
+        final long start = System.nanoTime();
+        List<Word> words;
+        try (FileInputStream fis = context.openFileInput(BINARY_FILE);
+             FileChannel channel = fis.getChannel()) {
+            words = BinaryWordFormat.read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+        final long time = System.nanoTime() - start;
+        assertEquals(NUMBER_OF_WORDS, words.size());
+        return time;
+    }
+
+    private void log(String name, long[] times, String filename) {
+        Log.i(TAG, String.format("%s, %d words: load %.1f ms (median of %d runs), file size %.1f MB",
+                name, NUMBER_OF_WORDS, median(times) / 1e6, RUNS, context.getFileStreamPath(filename).length() / 1e6));
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static List<Word> createWords(int count) throws Word.UnsuccessfulWordCreationException {
+        List<Word> words = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Word word = new Word("word" + i + ",synonym" + i);
+            word.setId(Integer.toString(i));
+            word.setTranslatedWord("translation" + i);
+            word.setDescription("description of word number " + i);
+            word.setCategories("category" + i % 20);
+            word.setWordType(Word.WordType.values()[i % Word.WordType.values().length]);
+            for (int j = 0; j < i % 6; j++) {
+                word.addNewScore(j * 2);
+            }
+            words.add(word);
+        }
+        return words;
+    }
+}
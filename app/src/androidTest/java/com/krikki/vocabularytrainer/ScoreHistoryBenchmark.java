@@ -0,0 +1,91 @@
+package com.krikki.vocabularytrainer;
+
+import android.util.Log;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Compares heap retained by score history of a word in {@link ScoreHistory} with heap retained by
+ * LinkedList of Integers, which was used before. Both are filled with full history of scores, the
+ * same way as Word.addNewScore fills them. Bytes per word are written to log with tag "Benchmark".
+ * <p>
+ * Run on a device with {@code ./gradlew connectedAndroidTest}.
+ */
+public class ScoreHistoryBenchmark {
+    private static final String TAG = "Benchmark";
+    private static final int NUMBER_OF_WORDS = 200000;
+    private static final int RUNS = 5;
+    private static final int SCORES_LENGTH = 5; // the same as in Word
+
+    @Test
+    public void measureFootprint() {
+        long[] linkedList = new long[RUNS];
+        long[] scoreHistory = new long[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            linkedList[run] = measureLinkedLists();
+            scoreHistory[run] = measureScoreHistories();
+        }
+        log("LinkedList<Integer>", linkedList);
+        log("ScoreHistory", scoreHistory);
+    }
+
+    /**
+     * @return bytes retained by score histories of all words
+     */
+    private static long measureLinkedLists() {
+        Object[] histories = new Object[NUMBER_OF_WORDS];
+        final long afterArray = usedHeapAfterGc();
+        for (int i = 0; i < NUMBER_OF_WORDS; i++) {
+            List<Integer> scores = new LinkedList<>();
+            for (int j = 0; j < SCORES_LENGTH + 1; j++) {
+                // previous implementation of Word.addNewScore
+                if (scores.size() == SCORES_LENGTH) {
+                    scores.remove(scores.size() - 1);
+                }
+                scores.add(0, (i + j) % (Word.MAX_INDIVIDUAL_SCORE + 1));
+            }
+            histories[i] = scores;
+        }
+        final long retained = usedHeapAfterGc() - afterArray;
+        Arrays.fill(histories, null);
+        return retained;
+    }
+
+    /**
+     * @return bytes retained by score histories of all words
+     */
+    private static long measureScoreHistories() {
+        Object[] histories = new Object[NUMBER_OF_WORDS];
+        final long afterArray = usedHeapAfterGc();
+        for (int i = 0; i < NUMBER_OF_WORDS; i++) {
+            ScoreHistory scores = new ScoreHistory(SCORES_LENGTH);
+            for (int j = 0; j < SCORES_LENGTH + 1; j++) {
+                scores.add((i + j) % (Word.MAX_INDIVIDUAL_SCORE + 1));
+            }
+            histories[i] = scores;
+        }
+        final long retained = usedHeapAfterGc() - afterArray;
+        Arrays.fill(histories, null);
+        return retained;
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            runtime.gc();
+            runtime.runFinalization();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void log(String name, long[] retained) {
+        long[] sorted = retained.clone();
+        Arrays.sort(sorted);
+        Log.i(TAG, String.format("%s: %.1f bytes per word (median of %d runs, %d words)",
+                name, (double) sorted[sorted.length / 2] / NUMBER_OF_WORDS, RUNS, NUMBER_OF_WORDS));
+    }
+}
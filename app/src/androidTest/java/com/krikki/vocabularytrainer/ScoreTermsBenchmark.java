@@ -0,0 +1,131 @@
+package com.krikki.vocabularytrainer;
+
+import android.util.Log;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares adding a score to a word, where total score is summed from precomputed table of terms,
+ * with adding a score and calculating total score with Math.pow, as it was done before. Time per
+ * added score is written to log with tag "Benchmark".
+ * <p>
+ * Run on a device with {@code ./gradlew connectedAndroidTest}.
+ */
+public class ScoreTermsBenchmark {
+    private static final String TAG = "Benchmark";
+    private static final int OPERATIONS = 2000000;
+    private static final int RUNS = 5;
+    private static final int SCORES_LENGTH = 5; // the same as in Word
+
+    // scores are taken from this array, so that both ways get the same histories
+    private static final int[] SCORES = new int[1024];
+
+    static {
+        for (int i = 0; i < SCORES.length; i++) {
+            SCORES[i] = (i * 7 + i / 11) % (Word.MAX_INDIVIDUAL_SCORE + 1);
+        }
+    }
+
+    @Test
+    public void addScores() throws Exception {
+        // results must be the same, before they are compared
+        Word word = new Word("word");
+        ScoreHistory history = new ScoreHistory(SCORES_LENGTH);
+        for (int i = 0; i < 10000; i++) {
+            word.addNewScore(SCORES[i % SCORES.length]);
+            history.add(SCORES[i % SCORES.length]);
+            assertEquals(calculateScoreWithPow(history), word.getScore());
+        }
+
+        // first run of each is not measured, so that both ways run compiled code
+        addWithTable();
+        addWithPow();
+        long[] table = new long[RUNS];
+        long[] pow = new long[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            table[run] = addWithTable();
+            pow[run] = addWithPow();
+        }
+        log("Table of terms", table);
+        log("Math.pow", pow);
+    }
+
+    /**
+     * @return time in nanoseconds
+     */
+    private static long addWithTable() throws Exception {
+        Word word = new Word("word");
+        long sum = 0;
+        final long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            word.addNewScore(SCORES[i & (SCORES.length - 1)]);
+            sum += word.getScore();
+        }
+        final long time = System.nanoTime() - start;
+        consume(sum);
+        return time;
+    }
+
+    /**
+     * @return time in nanoseconds
+     */
+    private static long addWithPow() {
+        ScoreHistory history = new ScoreHistory(SCORES_LENGTH);
+        long sum = 0;
+        final long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            final int newScore = SCORES[i & (SCORES.length - 1)];
+            // the same checks as in Word.addNewScore
+            if (newScore > Word.MAX_INDIVIDUAL_SCORE || newScore < Word.MIN_INDIVIDUAL_SCORE) {
+                throw new IllegalArgumentException();
+            }
+            history.add(newScore);
+            sum += calculateScoreWithPow(history);
+        }
+        final long time = System.nanoTime() - start;
+        consume(sum);
+        return time;
+    }
+
+    /**
+     * Previous implementation of Word.calculateScore.
+     */
+    private static int calculateScoreWithPow(ScoreHistory scores) {
+        if (scores.size() < 3) {
+            return -1;
+        }
+        double s = 1.14;
+        double t = 0.21;
+        double f = 2.21;
+        double score = Math.pow(scores.get(0), s) * f;
+        score += Math.pow(scores.get(1), s - 0.3 * t) * f;
+        score += Math.pow(scores.get(2), s - 0.6 * t) * f;
+        if (scores.size() > 3) {
+            score += Math.pow(scores.get(3), s - 1.3 * t) * f;
+        }
+        if (scores.size() > 4) {
+            score += Math.pow(scores.get(4), s - 2.0 * t) * f;
+        }
+        return Math.min(Math.max((int) score, Word.MIN_TOTAL_SCORE), Word.MAX_TOTAL_SCORE);
+    }
+
+    /**
+     * Uses result, so that compiler cannot remove the measured code.
+     */
+    private static void consume(long sum) {
+        if (sum == Long.MIN_VALUE) {
+            Log.i(TAG, "unexpected sum");
+        }
+    }
+
+    private static void log(String name, long[] times) {
+        long[] sorted = times.clone();
+        Arrays.sort(sorted);
+        Log.i(TAG, String.format("%s: %.1f ns per added score (median of %d runs, %d scores each)",
+                name, (double) sorted[sorted.length / 2] / OPERATIONS, RUNS, OPERATIONS));
+    }
+}
@@ -0,0 +1,187 @@
+package com.krikki.vocabularytrainer;
+
+import android.content.Context;
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares reading words file through {@link WordJsonStreamReader} with reading the whole file into
+ * a String and parsing it into a tree of {@link JSONObject}s, as words were read before. Time until
+ * the first word is available, time until all words are read and peak heap used while reading are
+ * written to log with tag "Benchmark".
+ * <p>
+ * Run on a device with {@code ./gradlew connectedAndroidTest}.
+ */
+public class WordJsonStreamReaderBenchmark {
+    private static final String TAG = "Benchmark";
+    private static final String FILE = "benchmark_words_file";
+    private static final int NUMBER_OF_WORDS = 50000;
+    private static final int RUNS = 5;
+
+    private Context context;
+    private DataStorageManager storageManager;
+
+    @Before
+    public void writeWords() throws Exception {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        storageManager = new DataStorageManager(context);
+        try (Writer writer = new OutputStreamWriter(context.openFileOutput(FILE, Context.MODE_PRIVATE))) {
+            writer.write(storageManager.convertToJson(createWords(NUMBER_OF_WORDS)));
+        }
+    }
+
+    @After
+    public void deleteWords() {
+        context.deleteFile(FILE);
+    }
+
+    @Test
+    public void readWords() throws Exception {
+        // first run of each is not measured, so that both paths run compiled code
+        readWithJsonObjects();
+        readWithStreamReader();
+        long[][] jsonObjects = new long[3][RUNS];
+        long[][] streamReader = new long[3][RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            long[] result = readWithJsonObjects();
+            for (int i = 0; i < 3; i++) {
+                jsonObjects[i][run] = result[i];
+            }
+            result = readWithStreamReader();
+            for (int i = 0; i < 3; i++) {
+                streamReader[i][run] = result[i];
+            }
+        }
+        log("JSONObject", jsonObjects);
+        log("WordJsonStreamReader", streamReader);
+    }
+
+    /**
+     * Reads words the same way as convertToListOfWords(String) does.
+     * @return time until the first word, time until all words in nanoseconds and peak heap in bytes
+     */
+    private long[] readWithJsonObjects() throws Exception {
+        HeapSampler heapSampler = new HeapSampler();
+        final long start = System.nanoTime();
+        JSONArray jsonArray = new JSONObject(storageManager.readFromStorage(FILE)).getJSONArray("words");
+        List<Word> words = new ArrayList<>();
+        long firstWord = 0;
+        for (int i = 0; i < jsonArray.length(); i++) {
+            words.add(Word.getWordFromJson(jsonArray.getJSONObject(i)));
+            if (i == 0) {
+                firstWord = System.nanoTime() - start;
+            }
+        }
+        final long allWords = System.nanoTime() - start;
+        final long peakHeap = heapSampler.finish();
+        assertEquals(NUMBER_OF_WORDS, words.size());
+        return new long[]{firstWord, allWords, peakHeap};
+    }
+
+    /**
+     * @return time until the first word, time until all words in nanoseconds and peak heap in bytes
+     */
+    private long[] readWithStreamReader() throws Exception {
+        HeapSampler heapSampler = new HeapSampler();
+        final long start = System.nanoTime();
+        List<Word> words = new ArrayList<>();
+        long firstWord = 0;
+        try (WordJsonStreamReader reader = new WordJsonStreamReader(context.openFileInput(FILE))) {
+            while (reader.hasNext()) {
+                words.add(reader.next());
+                if (words.size() == 1) {
+                    firstWord = System.nanoTime() - start;
+                }
+            }
+        }
+        final long allWords = System.nanoTime() - start;
+        final long peakHeap = heapSampler.finish();
+        assertEquals(NUMBER_OF_WORDS, words.size());
+        return new long[]{firstWord, allWords, peakHeap};
+    }
+
+    private static void log(String name, long[][] results) {
+        Log.i(TAG, String.format("%s, %d words: first word %.1f ms, all words %.1f ms, peak heap %.1f MB (medians of %d runs)",
+                name, NUMBER_OF_WORDS, median(results[0]) / 1e6, median(results[1]) / 1e6, median(results[2]) / 1e6, RUNS));
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static List<Word> createWords(int count) throws Word.UnsuccessfulWordCreationException {
+        List<Word> words = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Word word = new Word("word" + i + ",synonym" + i);
+            word.setId(Integer.toString(i));
+            word.setTranslatedWord("translation" + i);
+            word.setDescription("description of word number " + i);
+            word.setCategories("category" + i % 20);
+            word.setWordType(Word.WordType.values()[i % Word.WordType.values().length]);
+            for (int j = 0; j < i % 6; j++) {
+                word.addNewScore(j * 2);
+            }
+            words.add(word);
+        }
+        return words;
+    }
+
+    /**
+     * Samples used heap on a background thread, from its creation until {@link #finish()}.
+     */
+    private static final class HeapSampler extends Thread {
+        private final long baseline;
+        private volatile boolean running = true;
+        private long peak;
+
+        private HeapSampler() {
+            Runtime.getRuntime().gc();
+            baseline = usedHeap();
+            peak = baseline;
+            setDaemon(true);
+            start();
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                peak = Math.max(peak, usedHeap());
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Stops sampling and returns the highest used heap above used heap at creation.
+         */
+        private long finish() throws InterruptedException {
+            running = false;
+            join();
+            return Math.max(peak, usedHeap()) - baseline;
+        }
+
+        private static long usedHeap() {
+            return Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.krikki.vocabularytrainer;
+
+import android.util.Log;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+
+/**
+ * Measures time of creating a large synthetic vocabulary through setters of {@link Word}, which
+ * validate and normalize every field, as it happens when words are loaded. It is compared with
+ * validation and normalization of the same fields with regular expressions, as it was done before.
+ * Times are written to log with tag "Benchmark".
+ * <p>
+ * Run on a device with {@code ./gradlew connectedAndroidTest}.
+ */
+public class WordValidationBenchmark {
+    private static final String TAG = "Benchmark";
+    private static final int NUMBER_OF_WORDS = 100000;
+    private static final int RUNS = 5;
+
+    // fields of words: word, synonym, translated word, translated synonym and categories
+    private static final String[][] FIELDS = createFields();
+
+    @Test
+    public void createWords() throws Exception {
+        // results must be the same, before they are compared
+        for (int i = 0; i < 100; i++) {
+            Word word = createWord(FIELDS[i]);
+            assertArrayEquals(prepareWithRegex(FIELDS[i][0]), word.getWords());
+            assertArrayEquals(prepareWithRegex(FIELDS[i][2]), word.getTranslatedWords());
+        }
+
+        // first run of each is not measured, so that both ways run compiled code
+        createWithSetters();
+        prepareAllWithRegex();
+        long[] setters = new long[RUNS];
+        long[] regex = new long[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            setters[run] = createWithSetters();
+            regex[run] = prepareAllWithRegex();
+        }
+        log("Word setters", setters);
+        log("Previous regex validation only", regex);
+    }
+
+    /**
+     * @return time in nanoseconds
+     */
+    private static long createWithSetters() throws Exception {
+        Word[] words = new Word[NUMBER_OF_WORDS];
+        final long start = System.nanoTime();
+        for (int i = 0; i < NUMBER_OF_WORDS; i++) {
+            words[i] = createWord(FIELDS[i]);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static Word createWord(String[] fields) throws Word.UnsuccessfulWordCreationException {
+        Word word = new Word(fields[0]);
+        word.setSynonym(fields[1]);
+        word.setTranslatedWord(fields[2]);
+        word.setTranslatedSynonym(fields[3]);
+        word.setCategories(fields[4]);
+        return word;
+    }
+
+    /**
+     * Validates and normalizes fields the same way as setters did before, but without creating words.
+     * @return time in nanoseconds
+     */
+    private static long prepareAllWithRegex() throws Exception {
+        Object[] results = new Object[NUMBER_OF_WORDS * 5];
+        final long start = System.nanoTime();
+        for (int i = 0; i < NUMBER_OF_WORDS; i++) {
+            for (int field = 0; field < 4; field++) {
+                results[i * 5 + field] = prepareWithRegex(FIELDS[i][field]);
+            }
+            String[] categories = FIELDS[i][4].trim().split(",");
+            for (int j = 0; j < categories.length; j++) {
+                categories[j] = categories[j].trim();
+                if (categories[j].isEmpty() || !categories[j].matches("[-a-zA-Z_0-9+]+")) {
+                    throw new Word.UnsuccessfulWordCreationException("Invalid category");
+                }
+            }
+            results[i * 5 + 4] = categories;
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Previous implementation of Word.prepareWordAttributeFromString.
+     */
+    private static String[] prepareWithRegex(String wordToSet) throws Word.UnsuccessfulWordCreationException {
+        wordToSet = wordToSet.trim();
+        if (wordToSet.isEmpty() || wordToSet.startsWith(",") || wordToSet.endsWith(",") || wordToSet.contains(",,")) {
+            throw new Word.UnsuccessfulWordCreationException("Word contains words of zero length");
+        }
+        if (wordToSet.matches(".*[" + Word.FORBIDDEN_SIGNS_FOR_WORDS_REGEX + "].*")) {
+            throw new Word.UnsuccessfulWordCreationException("Word contains invalid characters");
+        }
+        return wordToSet.replaceAll("\\s{2,}", " ").replaceAll(" ?, ?", ",").split(",");
+    }
+
+    private static String[][] createFields() {
+        String[][] fields = new String[NUMBER_OF_WORDS][];
+        for (int i = 0; i < NUMBER_OF_WORDS; i++) {
+            fields[i] = new String[]{
+                    "word number " + i + ", other  form " + i,
+                    "synonym " + i,
+                    "translation " + i + " ,translated form " + i,
+                    "translated synonym " + i,
+                    "category" + i % 20 + ",level-" + i % 3};
+        }
+        return fields;
+    }
+
+    private static void log(String name, long[] times) {
+        long[] sorted = times.clone();
+        Arrays.sort(sorted);
+        Log.i(TAG, String.format("%s, %d words: %.1f ms (median of %d runs)",
+                name, NUMBER_OF_WORDS, sorted[sorted.length / 2] / 1e6, RUNS));
+    }
+}
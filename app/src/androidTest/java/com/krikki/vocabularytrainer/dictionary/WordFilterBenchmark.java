@@ -0,0 +1,127 @@
+package com.krikki.vocabularytrainer.dictionary;
+
+import android.util.Log;
+
+import com.krikki.vocabularytrainer.Word;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.krikki.vocabularytrainer.util.StringManipulator.anyStartsWithSimplified;
+import static com.krikki.vocabularytrainer.util.StringManipulator.isSimplified;
+import static com.krikki.vocabularytrainer.util.StringManipulator.isSubstringSimplifiedFrom;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares filtering of words in dictionary as the query is being typed, when simplified forms of
+ * words are cached, with filtering where every letter is simplified while comparing, as it was done
+ * before. Both use the same loop as {@link WordListAdapter}'s filter. Time per keystroke is
+ * written to log with tag "Benchmark".
+ * <p>
+ * Run on a device with {@code ./gradlew connectedAndroidTest}.
+ */
+public class WordFilterBenchmark {
+    private static final String TAG = "Benchmark";
+    private static final int NUMBER_OF_WORDS = 50000;
+    private static final int RUNS = 5;
+    // queries typed one letter at a time, with and without localized letters
+    private static final String[] TYPED_QUERIES = {"cesnja", "češnja", "zaba", "žaba"};
+
+    @Test
+    public void filterWords() throws Exception {
+        List<Word> words = createWords();
+        // results must be the same, before they are compared; this also caches simplified forms
+        for (String query : keystrokes()) {
+            assertEquals(filterWithSimplifiedForms(words, query), filterWithLetterSimplification(words, query));
+        }
+
+        long[] simplifiedForms = new long[RUNS];
+        long[] letterSimplification = new long[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            for (String query : keystrokes()) {
+                filterWithSimplifiedForms(words, query);
+            }
+            simplifiedForms[run] = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (String query : keystrokes()) {
+                filterWithLetterSimplification(words, query);
+            }
+            letterSimplification[run] = System.nanoTime() - start;
+        }
+        log("Cached simplified forms", simplifiedForms);
+        log("Simplifying letters while comparing", letterSimplification);
+    }
+
+    private static List<Word> filterWithSimplifiedForms(List<Word> words, String query) {
+        List<Word> filtered = new ArrayList<>();
+        final boolean isQuerySimplified = isSimplified(query);
+        for (Word word : words) {
+            if (anyStartsWithSimplified(word.getWords(), word.getSimplifiedWords(), query, isQuerySimplified)) {
+                filtered.add(word);
+                continue;
+            }
+            if (word.hasTranslatedWords() && anyStartsWithSimplified(word.getTranslatedWords(),
+                    word.getSimplifiedTranslatedWords(), query, isQuerySimplified)) {
+                filtered.add(word);
+            }
+        }
+        return filtered;
+    }
+
+    /**
+     * Previous implementation of filter in WordListAdapter.
+     */
+    private static List<Word> filterWithLetterSimplification(List<Word> words, String query) {
+        List<Word> filtered = new ArrayList<>();
+        for (Word word : words) {
+            if (Arrays.stream(word.getWords())
+                    .filter(w -> w.length() >= query.length())
+                    .anyMatch(w -> isSubstringSimplifiedFrom(w, query))) {
+                filtered.add(word);
+                continue;
+            }
+            if (word.hasTranslatedWords() && Arrays.stream(word.getTranslatedWords())
+                    .filter(w -> w.length() >= query.length())
+                    .anyMatch(w -> isSubstringSimplifiedFrom(w, query))) {
+                filtered.add(word);
+            }
+        }
+        return filtered;
+    }
+
+    /**
+     * Returns all queries, one for each typed letter.
+     */
+    private static List<String> keystrokes() {
+        List<String> queries = new ArrayList<>();
+        for (String query : TYPED_QUERIES) {
+            for (int length = 1; length <= query.length(); length++) {
+                queries.add(query.substring(0, length));
+            }
+        }
+        return queries;
+    }
+
+    private static List<Word> createWords() throws Word.UnsuccessfulWordCreationException {
+        final String[] stems = {"češnja", "žaba", "čaša", "zid", "šola", "cesta", "kača", "ključ"};
+        List<Word> words = new ArrayList<>(NUMBER_OF_WORDS);
+        for (int i = 0; i < NUMBER_OF_WORDS; i++) {
+            Word word = new Word(stems[i % stems.length] + i + ",sinonim" + i);
+            word.setTranslatedWord("translation" + i + ",other" + stems[(i / 8) % stems.length]);
+            words.add(word);
+        }
+        return words;
+    }
+
+    private static void log(String name, long[] times) {
+        long[] sorted = times.clone();
+        Arrays.sort(sorted);
+        final int keystrokes = keystrokes().size();
+        Log.i(TAG, String.format("%s, %d words: %.2f ms per keystroke (median of %d runs, %d keystrokes each)",
+                name, NUMBER_OF_WORDS, sorted[sorted.length / 2] / 1e6 / keystrokes, RUNS, keystrokes));
+    }
+}
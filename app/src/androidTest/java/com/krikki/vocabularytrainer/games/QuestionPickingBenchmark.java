@@ -0,0 +1,132 @@
+package com.krikki.vocabularytrainer.games;
+
+import android.util.Log;
+
+import com.krikki.vocabularytrainer.Word;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.TreeSet;
+import java.util.function.IntUnaryOperator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Compares picking questions out of a million words with weighted sampling in
+ * {@link CommonGameGenerator#pickQuestions(int)} with picking them from a list sorted by score, as
+ * it was done before. Time per pick of questions for one game is written to log with tag "Benchmark".
+ * <p>
+ * Run on a device with {@code ./gradlew connectedAndroidTest}.
+ */
+public class QuestionPickingBenchmark {
+    private static final String TAG = "Benchmark";
+    private static final int NUMBER_OF_WORDS = 1000000;
+    private static final int NUMBER_OF_QUESTIONS = 10;
+    private static final int RUNS = 5;
+
+    @Test
+    public void pickQuestions() throws Exception {
+        List<Word> words = createWords();
+        CommonGameGenerator generator = new CommonGameGenerator(words);
+
+        // first run of each is not measured, so that both ways run compiled code
+        pickWithSampling(generator);
+        pickFromSortedList(words);
+        long[] sampling = new long[RUNS];
+        long[] sortedList = new long[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            sampling[run] = pickWithSampling(generator);
+            sortedList[run] = pickFromSortedList(words);
+        }
+        log("Weighted sampling", sampling);
+        log("Sorted list", sortedList);
+    }
+
+    /**
+     * @return time in nanoseconds
+     */
+    private static long pickWithSampling(CommonGameGenerator generator) throws Exception {
+        final long start = System.nanoTime();
+        List<Word> picked = generator.pickQuestions(NUMBER_OF_QUESTIONS);
+        final long time = System.nanoTime() - start;
+        assertEquals(NUMBER_OF_QUESTIONS, picked.size());
+        return time;
+    }
+
+    /**
+     * Previous implementation of CommonGameGenerator.pickQuestions. Words are copied first, so that
+     * every run sorts words in their original order, as each game did.
+     * @return time in nanoseconds
+     */
+    private static long pickFromSortedList(List<Word> allWords) {
+        List<Word> words = new ArrayList<>(allWords);
+        final long start = System.nanoTime();
+        words.sort(Word.comparatorByScore());
+        final IntUnaryOperator scoreToWeight = score -> {
+            int s = 110 - score;
+            if (score == -1)
+                s += 15;
+            if (score < 25)
+                s += 10;
+            if (score < 50)
+                s += 10;
+            if (score > 90)
+                s -= 5;
+            return s;
+        };
+        int sumOfAll = words.stream().mapToInt(word -> scoreToWeight.applyAsInt(word.getScore())).sum();
+        ArrayList<Word> pickedWords = new ArrayList<>(NUMBER_OF_QUESTIONS);
+        TreeSet<Integer> weightSelectors = new TreeSet<>();
+        for (int i = 0; i < NUMBER_OF_QUESTIONS; i++) {
+            if (!weightSelectors.add((int) (Math.random() * sumOfAll))) {
+                i--;
+            }
+        }
+
+        Iterator<Integer> weightSelectorIterator = weightSelectors.iterator();
+        ListIterator<Word> wordIterator = words.listIterator();
+        int totalAccumulatedWeight = 0;
+        while (weightSelectorIterator.hasNext() && wordIterator.hasNext()) {
+            final int nextAccumulatedWeight = weightSelectorIterator.next();
+            while (true) {
+                final Word currentWord = wordIterator.next();
+                totalAccumulatedWeight += scoreToWeight.applyAsInt(currentWord.getScore());
+                if (totalAccumulatedWeight >= nextAccumulatedWeight) {
+                    pickedWords.add(currentWord);
+                    break;
+                }
+            }
+        }
+        final long time = System.nanoTime() - start;
+        // previous implementation then added words with the lowest scores, if two random numbers
+        // pointed to the same word, which almost never happens with this many words
+        assertFalse(pickedWords.isEmpty());
+        return time;
+    }
+
+    private static List<Word> createWords() throws Word.UnsuccessfulWordCreationException {
+        List<Word> words = new ArrayList<>(NUMBER_OF_WORDS);
+        for (int i = 0; i < NUMBER_OF_WORDS; i++) {
+            Word word = new Word("w" + i);
+            // every fifth word has no score
+            for (int j = 0; j < i % 5 * 2 - 2; j++) {
+                word.addNewScore((i + j) % (Word.MAX_INDIVIDUAL_SCORE + 1));
+            }
+            words.add(word);
+        }
+        return words;
+    }
+
+    private static void log(String name, long[] times) {
+        long[] sorted = times.clone();
+        Arrays.sort(sorted);
+        Log.i(TAG, String.format("%s, %d out of %d words: %.1f ms (median of %d runs)",
+                name, NUMBER_OF_QUESTIONS, NUMBER_OF_WORDS, sorted[sorted.length / 2] / 1e6, RUNS));
+    }
+}
@@ -0,0 +1,220 @@
+package com.krikki.vocabularytrainer.util;
+
+import android.util.Log;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Compares grading of answers with {@link StringManipulator#simplifiedEditDistance(String, String, int)}
+ * with a plain table of distances and with the single mistake check that was used before, which
+ * was faster, but missed some answers with two mistakes. Answers are correct, simplified, with one or
+ * two mistakes or completely different. Time per graded answer is written to log with tag "Benchmark".
+ * <p>
+ * Run on a device with {@code ./gradlew connectedAndroidTest}.
+ */
+public class EditDistanceBenchmark {
+    private static final String TAG = "Benchmark";
+    private static final int NUMBER_OF_PAIRS = 4096;
+    private static final int REPETITIONS = 200;
+    private static final int RUNS = 5;
+    private static final String LETTERS = "abcdefghijklmnoprstuvzčšžćđéöü";
+
+    // correct answers and answers that are graded
+    private static final String[] BASES = new String[NUMBER_OF_PAIRS];
+    private static final String[] ANSWERS = new String[NUMBER_OF_PAIRS];
+
+    static {
+        Random random = new Random(1);
+        for (int i = 0; i < NUMBER_OF_PAIRS; i++) {
+            BASES[i] = randomString(random, 4 + random.nextInt(12));
+            StringBuilder answer = new StringBuilder(StringManipulator.simplify(BASES[i]));
+            switch (i % 5) {
+                case 0: // correct, but simplified
+                    break;
+                case 1: // wrong letter
+                    answer.setCharAt(random.nextInt(answer.length()), 'q');
+                    break;
+                case 2: // swapped letters
+                    final int position = random.nextInt(answer.length() - 1);
+                    final char c = answer.charAt(position);
+                    answer.setCharAt(position, answer.charAt(position + 1));
+                    answer.setCharAt(position + 1, c);
+                    break;
+                case 3: // missing and extra letter
+                    answer.deleteCharAt(random.nextInt(answer.length()));
+                    answer.insert(random.nextInt(answer.length()), 'q');
+                    break;
+                default: // different answer
+                    answer = new StringBuilder(randomString(random, BASES[i].length()));
+            }
+            ANSWERS[i] = answer.toString();
+        }
+    }
+
+    @Test
+    public void gradeAnswers() {
+        // first run of each is not measured, so that both ways run compiled code
+        gradeWithEditDistance();
+        gradeWithTable();
+        gradeWithSingleMistakeCheck();
+        long[] editDistance = new long[RUNS];
+        long[] table = new long[RUNS];
+        long[] singleMistake = new long[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            editDistance[run] = gradeWithEditDistance();
+            table[run] = gradeWithTable();
+            singleMistake[run] = gradeWithSingleMistakeCheck();
+        }
+        log("simplifiedEditDistance", editDistance);
+        log("Table of distances", table);
+        log("Previous single mistake check", singleMistake);
+    }
+
+    /**
+     * @return time in nanoseconds
+     */
+    private static long gradeWithEditDistance() {
+        int mistakes = 0;
+        final long start = System.nanoTime();
+        for (int repetition = 0; repetition < REPETITIONS; repetition++) {
+            for (int i = 0; i < NUMBER_OF_PAIRS; i++) {
+                mistakes += StringManipulator.simplifiedEditDistance(BASES[i], ANSWERS[i], 1);
+            }
+        }
+        final long time = System.nanoTime() - start;
+        consume(mistakes);
+        return time;
+    }
+
+    /**
+     * @return time in nanoseconds
+     */
+    private static long gradeWithTable() {
+        int mistakes = 0;
+        final long start = System.nanoTime();
+        for (int repetition = 0; repetition < REPETITIONS; repetition++) {
+            for (int i = 0; i < NUMBER_OF_PAIRS; i++) {
+                mistakes += Math.min(editDistanceWithTable(BASES[i], ANSWERS[i]), 2);
+            }
+        }
+        final long time = System.nanoTime() - start;
+        consume(mistakes);
+        return time;
+    }
+
+    /**
+     * @return time in nanoseconds
+     */
+    private static long gradeWithSingleMistakeCheck() {
+        int mistakes = 0;
+        final long start = System.nanoTime();
+        for (int repetition = 0; repetition < REPETITIONS; repetition++) {
+            for (int i = 0; i < NUMBER_OF_PAIRS; i++) {
+                mistakes += isStringSimplifiedFromWithSingleMistake(BASES[i], ANSWERS[i]);
+            }
+        }
+        final long time = System.nanoTime() - start;
+        consume(mistakes);
+        return time;
+    }
+
+    /**
+     * Previous implementation of StringManipulator.isStringSimplifiedFromWithSingleMistake.
+     */
+    private static int isStringSimplifiedFromWithSingleMistake(String baseString, String simplifiedString) {
+        if (Math.abs(baseString.length() - simplifiedString.length()) > 1) {
+            return 2;
+        }
+        int length = Math.max(baseString.length(), simplifiedString.length());
+
+        baseString += "**";
+        simplifiedString += "**";
+        boolean mistakeWasMade = false;
+
+        int b = 0;
+        int s = 0;
+        while (b < length && s < length) {
+            if (!isCharSimplifiedFrom(baseString.charAt(b), simplifiedString.charAt(s))) {
+                if (mistakeWasMade) {
+                    return 2;
+                }
+
+                mistakeWasMade = true;
+                boolean both = false;
+                if (isCharSimplifiedFrom(baseString.charAt(b), simplifiedString.charAt(s + 1))) {
+                    s++;
+                    both = true;
+                }
+                if (isCharSimplifiedFrom(baseString.charAt(b + 1), simplifiedString.charAt(s))) {
+                    b++;
+                    if (both) {
+                        continue;
+                    }
+                }
+            }
+            b++;
+            s++;
+        }
+        return mistakeWasMade ? 1 : 0;
+    }
+
+    /**
+     * Optimal string alignment distance computed with a table of distances between all prefixes.
+     */
+    private static int editDistanceWithTable(String baseString, String simplifiedString) {
+        final int m = baseString.length();
+        final int n = simplifiedString.length();
+        int[][] distances = new int[m + 1][n + 1];
+        for (int i = 0; i <= m; i++) {
+            distances[i][0] = i;
+        }
+        for (int j = 0; j <= n; j++) {
+            distances[0][j] = j;
+        }
+        for (int i = 1; i <= m; i++) {
+            for (int j = 1; j <= n; j++) {
+                final char b = baseString.charAt(i - 1);
+                final char s = simplifiedString.charAt(j - 1);
+                int distance = distances[i - 1][j - 1] + (isCharSimplifiedFrom(b, s) ? 0 : 1);
+                distance = Math.min(distance, Math.min(distances[i - 1][j], distances[i][j - 1]) + 1);
+                if (i > 1 && j > 1 && isCharSimplifiedFrom(b, simplifiedString.charAt(j - 2))
+                        && isCharSimplifiedFrom(baseString.charAt(i - 2), s)) {
+                    distance = Math.min(distance, distances[i - 2][j - 2] + 1);
+                }
+                distances[i][j] = distance;
+            }
+        }
+        return distances[m][n];
+    }
+
+    private static boolean isCharSimplifiedFrom(char baseChar, char simplifiedChar) {
+        return baseChar == simplifiedChar || StringManipulator.simplifyChar(baseChar) == simplifiedChar;
+    }
+
+    private static String randomString(Random random, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = LETTERS.charAt(random.nextInt(LETTERS.length()));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Uses result, so that compiler cannot remove the measured code.
+     */
+    private static void consume(int mistakes) {
+        if (mistakes < 0) {
+            Log.i(TAG, "unexpected number of mistakes");
+        }
+    }
+
+    private static void log(String name, long[] times) {
+        long[] sorted = times.clone();
+        Arrays.sort(sorted);
+        Log.i(TAG, String.format("%s: %.1f ns per answer (median of %d runs, %d answers each)",
+                name, (double) sorted[sorted.length / 2] / (NUMBER_OF_PAIRS * REPETITIONS), RUNS, NUMBER_OF_PAIRS * REPETITIONS));
+    }
+}
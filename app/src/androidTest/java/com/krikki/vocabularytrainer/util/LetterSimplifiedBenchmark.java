@@ -0,0 +1,159 @@
+package com.krikki.vocabularytrainer.util;
+
+import android.util.Log;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares {@link StringManipulator#isStringSimplifiedFrom(String, String)}, which folds letters with
+ * a table indexed by letter, with the same comparison done with a map from boxed letters, as it was
+ * done before. Time per comparison is written to log with tag "Benchmark".
+ * <p>
+ * Run on a device with {@code ./gradlew connectedAndroidTest}.
+ */
+public class LetterSimplifiedBenchmark {
+    private static final String TAG = "Benchmark";
+    private static final int NUMBER_OF_PAIRS = 4096;
+    private static final int REPETITIONS = 500;
+    private static final int RUNS = 5;
+    private static final String LETTERS = "abcdefghijklmnoprstuvzčšžćđéöü";
+
+    // previous Word.letterSimplified
+    private static final Map<Integer, Integer> LETTER_SIMPLIFIED_MAP = createMap();
+
+    // base strings and strings that are compared to them
+    private static final String[] BASES = new String[NUMBER_OF_PAIRS];
+    private static final String[] QUERIES = new String[NUMBER_OF_PAIRS];
+
+    static {
+        Random random = new Random(1);
+        for (int i = 0; i < NUMBER_OF_PAIRS; i++) {
+            char[] base = new char[5 + random.nextInt(8)];
+            for (int j = 0; j < base.length; j++) {
+                base[j] = LETTERS.charAt(random.nextInt(LETTERS.length()));
+            }
+            BASES[i] = new String(base);
+            // most answers are simplified or the same, some of them are wrong
+            char[] query = StringManipulator.simplify(BASES[i]).toCharArray();
+            if (i % 4 == 0) {
+                query[random.nextInt(query.length)] = 'q';
+            } else if (i % 4 == 1) {
+                query = base;
+            }
+            QUERIES[i] = new String(query);
+        }
+    }
+
+    @Test
+    public void compareStrings() {
+        // results must be the same, before they are compared
+        for (int i = 0; i < NUMBER_OF_PAIRS; i++) {
+            assertEquals(isStringSimplifiedFromWithMap(BASES[i], QUERIES[i]), StringManipulator.isStringSimplifiedFrom(BASES[i], QUERIES[i]));
+        }
+
+        // first run of each is not measured, so that both ways run compiled code
+        compareWithTable();
+        compareWithMap();
+        long[] table = new long[RUNS];
+        long[] map = new long[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            table[run] = compareWithTable();
+            map[run] = compareWithMap();
+        }
+        log("Folding table", table);
+        log("Map<Integer, Integer>", map);
+    }
+
+    /**
+     * @return time in nanoseconds
+     */
+    private static long compareWithTable() {
+        int matches = 0;
+        final long start = System.nanoTime();
+        for (int repetition = 0; repetition < REPETITIONS; repetition++) {
+            for (int i = 0; i < NUMBER_OF_PAIRS; i++) {
+                if (StringManipulator.isStringSimplifiedFrom(BASES[i], QUERIES[i])) {
+                    matches++;
+                }
+            }
+        }
+        final long time = System.nanoTime() - start;
+        consume(matches);
+        return time;
+    }
+
+    /**
+     * @return time in nanoseconds
+     */
+    private static long compareWithMap() {
+        int matches = 0;
+        final long start = System.nanoTime();
+        for (int repetition = 0; repetition < REPETITIONS; repetition++) {
+            for (int i = 0; i < NUMBER_OF_PAIRS; i++) {
+                if (isStringSimplifiedFromWithMap(BASES[i], QUERIES[i])) {
+                    matches++;
+                }
+            }
+        }
+        final long time = System.nanoTime() - start;
+        consume(matches);
+        return time;
+    }
+
+    /**
+     * Previous implementation of StringManipulator.isStringSimplifiedFrom.
+     */
+    private static boolean isStringSimplifiedFromWithMap(String baseString, String simplifiedString) {
+        if (baseString.length() != simplifiedString.length()) {
+            return false;
+        }
+        for (int i = 0; i < simplifiedString.length(); i++) {
+            final char baseChar = baseString.charAt(i);
+            final char simplifiedChar = simplifiedString.charAt(i);
+            if (baseChar != simplifiedChar) {
+                if (LETTER_SIMPLIFIED_MAP.containsKey((int) baseChar)) {
+                    if (LETTER_SIMPLIFIED_MAP.get((int) baseChar) != simplifiedChar) {
+                        return false;
+                    }
+                } else {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static Map<Integer, Integer> createMap() {
+        Map<Integer, Integer> map = new HashMap<>();
+        for (int c = 0; c < 0x10000; c++) {
+            final char simplified = StringManipulator.simplifyChar((char) c);
+            if (simplified != c) {
+                map.put(c, (int) simplified);
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Uses result, so that compiler cannot remove the measured code.
+     */
+    private static void consume(int matches) {
+        if (matches < 0) {
+            Log.i(TAG, "unexpected number of matches");
+        }
+    }
+
+    private static void log(String name, long[] times) {
+        long[] sorted = times.clone();
+        Arrays.sort(sorted);
+        Log.i(TAG, String.format("%s: %.1f ns per comparison (median of %d runs, %d comparisons each)",
+                name, (double) sorted[sorted.length / 2] / (NUMBER_OF_PAIRS * REPETITIONS), RUNS, NUMBER_OF_PAIRS * REPETITIONS));
+    }
+}
@@ -0,0 +1,193 @@
+package com.krikki.vocabularytrainer;
+
+import android.util.Log;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Data file that is never left partially written. Data is first written to a temporary file, followed
+ * by a trailer with length and CRC32 checksum of the data. Temporary file is synced to disk and only
+ * then renamed over the file, which is atomic. Previous version of the file is kept as a backup.
+ * <p>
+ * When reading, the checksum is verified. If the file is missing or corrupted, backup is used
+ * instead and it is restored as the file. This way there is no point in time, at which a crash
+ * would leave no valid copy of data.
+ */
+final class AtomicDataFile {
+    private static final String TAG = "AtomicDataFile";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final String BACKUP_SUFFIX = ".bak";
+    private static final int TRAILER_MAGIC = 0x56544243; // "VTBC"
+    private static final int TRAILER_LENGTH = 16; // data length, checksum and magic
+
+    private final File file;
+    private final File backupFile;
+
+    AtomicDataFile(File file) {
+        this.file = file;
+        this.backupFile = new File(file.getPath() + BACKUP_SUFFIX);
+    }
+
+    /**
+     * Returns true if file or its backup exists.
+     */
+    boolean exists() {
+        return file.exists() || backupFile.exists();
+    }
+
+    /**
+     * Writes data to a temporary file and replaces the file with it.
+     */
+    void write(DataWriter writer) throws IOException {
+        commit(writeTemporary(TEMPORARY_SUFFIX, writer));
+    }
+
+    /**
+     * Writes data with trailer to a temporary file and syncs it to disk. The file is not changed
+     * until temporary file is passed to {@link #commit(File)}.
+     * @param suffix suffix of temporary file name; writers running at the same time must use different ones
+     * @return temporary file
+     */
+    File writeTemporary(String suffix, DataWriter writer) throws IOException {
+        File temporaryFile = new File(file.getPath() + suffix);
+        try (FileOutputStream fos = new FileOutputStream(temporaryFile)) {
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(fos), new CRC32());
+            CountingOutputStream counting = new CountingOutputStream(checked);
+            writer.write(counting);
+            counting.flush();
+
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_LENGTH);
+            trailer.putLong(counting.count);
+            trailer.putInt((int) checked.getChecksum().getValue());
+            trailer.putInt(TRAILER_MAGIC);
+            fos.write(trailer.array());
+            fos.getFD().sync();
+        } catch (IOException | RuntimeException e) {
+            temporaryFile.delete();
+            throw e;
+        }
+        return temporaryFile;
+    }
+
+    /**
+     * Replaces the file with temporary file written by {@link #writeTemporary(String, DataWriter)}.
+     * Current file becomes the backup.
+     */
+    void commit(File temporaryFile) throws IOException {
+        if (file.exists() && !file.renameTo(backupFile)) {
+            throw new IOException("Backup of " + file.getName() + " could not be created");
+        }
+        if (!temporaryFile.renameTo(file)) {
+            throw new IOException("Temporary file could not be renamed to " + file.getName());
+        }
+    }
+
+    /**
+     * Maps the file to memory and verifies its checksum. If the file is not valid, backup is
+     * restored and used instead.
+     * @return buffer containing data without the trailer
+     * @throws FileNotFoundException if neither file nor backup exists
+     * @throws IOException if neither file nor backup is valid
+     */
+    ByteBuffer read() throws IOException {
+        ByteBuffer data = file.exists() ? map(file) : null;
+        if (data != null) {
+            return data;
+        }
+        if (!backupFile.exists()) {
+            if (file.exists()) {
+                throw new IOException("Data file " + file.getName() + " is corrupted");
+            }
+            throw new FileNotFoundException(file.getName() + " does not exist");
+        }
+        data = map(backupFile);
+        if (data == null) {
+            throw new IOException("Data file " + file.getName() + " and its backup are corrupted");
+        }
+        Log.w(TAG, file.getName() + " is missing or corrupted, restoring backup");
+        file.delete();
+        if (!backupFile.renameTo(file)) {
+            throw new IOException("Backup could not be restored to " + file.getName());
+        }
+        return data;
+    }
+
+    /**
+     * Deletes the file, its backup and temporary files with given suffixes.
+     */
+    void delete(String... temporarySuffixes) {
+        file.delete();
+        backupFile.delete();
+        for (String suffix : temporarySuffixes) {
+            new File(file.getPath() + suffix).delete();
+        }
+    }
+
+    /**
+     * Returns data in given file or null if its trailer is missing or checksum does not match.
+     */
+    private static ByteBuffer map(File file) throws IOException {
+        ByteBuffer buffer;
+        try (FileInputStream fis = new FileInputStream(file);
+             FileChannel channel = fis.getChannel()) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        final int dataLength = buffer.limit() - TRAILER_LENGTH;
+        if (dataLength < 0
+                || buffer.getInt(buffer.limit() - 4) != TRAILER_MAGIC
+                || buffer.getLong(dataLength) != dataLength) {
+            return null;
+        }
+        final int checksum = buffer.getInt(dataLength + 8);
+        buffer.limit(dataLength);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate());
+        if ((int) crc.getValue() != checksum) {
+            return null;
+        }
+        return buffer.slice();
+    }
+
+    interface DataWriter {
+        /**
+         * Writes data to the stream. Stream must not be closed.
+         */
+        void write(OutputStream out) throws IOException;
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private final OutputStream out;
+        private long count = 0;
+
+        private CountingOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+    }
+}
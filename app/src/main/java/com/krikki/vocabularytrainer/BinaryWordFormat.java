@@ -0,0 +1,299 @@
+package com.krikki.vocabularytrainer;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary format for storing list of words. It is used as a storage format, because reading it
+ * is a lot faster than parsing JSON. JSON remains the format for exporting and importing words.
+ * <p>
+ * File starts with {@link #MAGIC} and {@link #VERSION}. It is followed by a string table, which
+ * contains strings that repeat among words (categories), so each of them is stored only once.
+ * Then comes number of words and the words themselves. Each word starts with flags describing which
+ * optional fields are present. Strings are stored as length prefixed UTF-8, scores as one byte each
+ * and {@link Word.WordType} as its ordinal. All lengths and counts are stored as unsigned variable
+ * length integers (7 bits per byte).
+ * <p>
+ * Single words can also be written without the string table (see {@link #writeWord(DataOutputStream, Word, Map)}),
+ * in which case categories are stored inline.
+ */
+final class BinaryWordFormat {
+    static final int MAGIC = 0x56544257; // "VTBW"
+    static final byte VERSION = 1;
+
+    private static final int HAS_DESCRIPTION = 1;
+    private static final int HAS_TRANSLATED_WORD = 1 << 1;
+    private static final int HAS_SYNONYMS = 1 << 2;
+    private static final int HAS_TRANSLATED_SYNONYMS = 1 << 3;
+    private static final int HAS_DEMAND = 1 << 4;
+    private static final int HAS_TRANSLATED_DEMAND = 1 << 5;
+    private static final int HAS_NOTE = 1 << 6;
+    private static final int HAS_TRANSLATED_NOTE = 1 << 7;
+    private static final int HAS_CATEGORIES = 1 << 8;
+    private static final int HAS_WORD_TYPE = 1 << 9;
+
+    private static final Word.WordType[] WORD_TYPES = Word.WordType.values();
+
+    private BinaryWordFormat() {}
+
+    /**
+     * Writes list of words to output stream. Stream is not closed.
+     */
+    static void write(List<Word> words, OutputStream outputStream) throws IOException {
+        // collect repeated strings first, so the table can be written before words
+        Map<String, Integer> stringTable = new LinkedHashMap<>();
+        for (Word word : words) {
+            if (word.getCategories() != null) {
+                for (String category : word.getCategories()) {
+                    if (!stringTable.containsKey(category)) {
+                        stringTable.put(category, stringTable.size());
+                    }
+                }
+            }
+        }
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputStream));
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        writeVarInt(out, stringTable.size());
+        for (String string : stringTable.keySet()) {
+            writeString(out, string);
+        }
+        writeVarInt(out, words.size());
+        for (Word word : words) {
+            writeWord(out, word, stringTable);
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads list of words from buffer, starting at its current position.
+     * @throws IOException if data in the buffer is not in a valid format
+     * @throws Word.UnsuccessfulWordCreationException if data of some word breaks rules of word creation
+     */
+    static ArrayList<Word> read(ByteBuffer buffer) throws IOException, Word.UnsuccessfulWordCreationException {
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Data file is not in a binary words format");
+            }
+            byte version = buffer.get();
+            if (version != VERSION) {
+                throw new IOException("Unsupported data file version: " + version);
+            }
+            Decoder decoder = new Decoder(buffer);
+            String[] stringTable = new String[decoder.readVarInt()];
+            for (int i = 0; i < stringTable.length; i++) {
+                stringTable[i] = decoder.readString();
+            }
+            int size = decoder.readVarInt();
+            ArrayList<Word> words = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                words.add(decoder.readWord(stringTable));
+            }
+            return words;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Data file is truncated or corrupted");
+        }
+    }
+
+    /**
+     * Writes a single word. If string table is null, categories are written inline, otherwise
+     * they are written as indices in the table.
+     */
+    static void writeWord(DataOutputStream out, Word word, Map<String, Integer> stringTable) throws IOException {
+        int flags = 0;
+        if (word.hasDescription()) flags |= HAS_DESCRIPTION;
+        if (word.hasTranslatedWords()) flags |= HAS_TRANSLATED_WORD;
+        if (word.getSynonyms() != null) flags |= HAS_SYNONYMS;
+        if (word.getTranslatedSynonyms() != null) flags |= HAS_TRANSLATED_SYNONYMS;
+        if (!word.getDemand().isEmpty()) flags |= HAS_DEMAND;
+        if (!word.getTranslatedDemand().isEmpty()) flags |= HAS_TRANSLATED_DEMAND;
+        if (!word.getNote().isEmpty()) flags |= HAS_NOTE;
+        if (!word.getTranslatedNote().isEmpty()) flags |= HAS_TRANSLATED_NOTE;
+        if (word.getCategories() != null) flags |= HAS_CATEGORIES;
+        if (word.getWordType() != null) flags |= HAS_WORD_TYPE;
+
+        writeVarInt(out, flags);
+        writeString(out, word.getId());
+        writeStringArray(out, word.getWords());
+        if ((flags & HAS_DESCRIPTION) != 0) writeString(out, word.getDescription());
+        if ((flags & HAS_TRANSLATED_WORD) != 0) writeStringArray(out, word.getTranslatedWords());
+        if ((flags & HAS_SYNONYMS) != 0) writeStringArray(out, word.getSynonyms());
+        if ((flags & HAS_TRANSLATED_SYNONYMS) != 0) writeStringArray(out, word.getTranslatedSynonyms());
+        if ((flags & HAS_DEMAND) != 0) writeString(out, word.getDemand());
+        if ((flags & HAS_TRANSLATED_DEMAND) != 0) writeString(out, word.getTranslatedDemand());
+        if ((flags & HAS_NOTE) != 0) writeString(out, word.getNote());
+        if ((flags & HAS_TRANSLATED_NOTE) != 0) writeString(out, word.getTranslatedNote());
+        if ((flags & HAS_CATEGORIES) != 0) {
+            if (stringTable == null) {
+                writeStringArray(out, word.getCategories());
+            } else {
+                writeVarInt(out, word.getCategories().length);
+                for (String category : word.getCategories()) {
+                    writeVarInt(out, stringTable.get(category));
+                }
+            }
+        }
+        writeScores(out, word.getScores());
+        if ((flags & HAS_WORD_TYPE) != 0) out.writeByte(word.getWordType().ordinal());
+    }
+
+    /**
+     * Reads a single word written by {@link #writeWord(DataOutputStream, Word, Map)}, starting at current
+     * position of the buffer. String table must be null, if it was null when writing.
+     */
+    static Word readWord(ByteBuffer buffer, String[] stringTable) throws IOException, Word.UnsuccessfulWordCreationException {
+        try {
+            return new Decoder(buffer).readWord(stringTable);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Word data is truncated or corrupted");
+        }
+    }
+
+    /**
+     * Reads a single string written by {@link #writeString(DataOutputStream, String)}, starting at
+     * current position of the buffer.
+     */
+    static String readString(ByteBuffer buffer) throws IOException {
+        try {
+            return new Decoder(buffer).readString();
+        } catch (BufferUnderflowException e) {
+            throw new IOException("String data is truncated or corrupted");
+        }
+    }
+
+    /**
+     * Writes history of scores, one byte per score.
+     */
+    static void writeScores(DataOutputStream out, List<Integer> scores) throws IOException {
+        out.writeByte(scores.size());
+        for (int score : scores) {
+            out.writeByte(score);
+        }
+    }
+
+    /**
+     * Reads history of scores written by {@link #writeScores(DataOutputStream, List)}.
+     */
+    static List<Integer> readScores(ByteBuffer buffer) {
+        Integer[] scores = new Integer[buffer.get() & 0xFF];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = (int) buffer.get();
+        }
+        return new ArrayList<>(Arrays.asList(scores));
+    }
+
+    private static void writeStringArray(DataOutputStream out, String[] array) throws IOException {
+        writeVarInt(out, array.length);
+        for (String string : array) {
+            writeString(out, string);
+        }
+    }
+
+    static void writeString(DataOutputStream out, String string) throws IOException {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * Reads values from buffer. It reuses a single byte array for decoding strings.
+     */
+    private static class Decoder {
+        private final ByteBuffer buffer;
+        private byte[] scratch = new byte[64];
+
+        private Decoder(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        private Word readWord(String[] stringTable) throws IOException, Word.UnsuccessfulWordCreationException {
+            final int flags = readVarInt();
+            final String id = readString();
+            Word word = new Word(readStringArray());
+            word.setId(id);
+            if ((flags & HAS_DESCRIPTION) != 0) word.setDescription(readString());
+            if ((flags & HAS_TRANSLATED_WORD) != 0) word.setTranslatedWord(readStringArray());
+            if ((flags & HAS_SYNONYMS) != 0) word.setSynonym(readStringArray());
+            if ((flags & HAS_TRANSLATED_SYNONYMS) != 0) word.setTranslatedSynonym(readStringArray());
+            if ((flags & HAS_DEMAND) != 0) word.setDemand(readString());
+            if ((flags & HAS_TRANSLATED_DEMAND) != 0) word.setTranslatedDemand(readString());
+            if ((flags & HAS_NOTE) != 0) word.setNote(readString());
+            if ((flags & HAS_TRANSLATED_NOTE) != 0) word.setTranslatedNote(readString());
+            if ((flags & HAS_CATEGORIES) != 0) {
+                String[] categories;
+                if (stringTable == null) {
+                    categories = readStringArray();
+                } else {
+                    categories = new String[readVarInt()];
+                    for (int i = 0; i < categories.length; i++) {
+                        categories[i] = stringTable[readVarInt()];
+                    }
+                }
+                word.setCategories(categories);
+            }
+            word.setScores(readScores(buffer));
+            if ((flags & HAS_WORD_TYPE) != 0) {
+                int ordinal = buffer.get();
+                if (ordinal < 0 || ordinal >= WORD_TYPES.length) {
+                    throw new IOException("Invalid word type in data file");
+                }
+                word.setWordType(WORD_TYPES[ordinal]);
+            }
+            return word;
+        }
+
+        private String[] readStringArray() throws IOException {
+            String[] array = new String[readVarInt()];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = readString();
+            }
+            return array;
+        }
+
+        private String readString() throws IOException {
+            int length = readVarInt();
+            if (length > buffer.remaining()) {
+                throw new IOException("String length exceeds data size");
+            }
+            if (length > scratch.length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buffer.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private int readVarInt() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                byte b = buffer.get();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    if (value < 0) {
+                        throw new IOException("Invalid length in data file");
+                    }
+                    return value;
+                }
+            }
+            throw new IOException("Invalid length in data file");
+        }
+    }
+}
@@ -1,27 +1,76 @@
 package com.krikki.vocabularytrainer;
 
 import android.content.Context;
+import android.util.Log;
 
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Utility class for storing data to internal storage.
+ * <p>
+ * Words are stored in {@link #WORDS_BINARY_FILE} using {@link BinaryWordFormat}, which is much
+ * faster to load than JSON. JSON is still used for exporting and importing words. {@link #WORDS_FILE}
+ * is the JSON file used by older versions. It is only read when binary file does not exist yet, in which
+ * case words are migrated to binary file.
+ * <p>
+ * Changes of single words (see {@link #addWordToStorage(Word)}, {@link #updateWordInStorage(Word)},
+ * {@link #removeWordFromStorage(String)} and {@link #updateScoresInStorage(List)}) are not written
+ * to binary file. They are appended to {@link #WORDS_JOURNAL_FILE} instead (see {@link WordJournal}),
+ * which is replayed when words are read. Once journal grows large enough, it is merged into binary
+ * file in the background.
+ * <p>
+ * Scores are saved after every game, so they are not written immediately. {@link #updateScoresInStorage(List)}
+ * only remembers them and they are written by a background thread after {@link #SCORES_WRITE_DELAY_MS}.
+ * Scores saved in the meantime are merged into the same write. Other writes first write pending
+ * scores, so that order of changes is kept. Use {@link #flushAndWait()} to write them immediately.
+ * <p>
+ * Binary file is always replaced atomically with a checksummed copy and the previous version is
+ * kept as a backup (see {@link AtomicDataFile}), so an interrupted write never leaves words corrupted.
  */
 public class DataStorageManager {
+    private static final String TAG = "DataStorageManager";
     public static final String WORDS_FILE = "words_file";
+    public static final String WORDS_BINARY_FILE = "words_file.bin";
+    public static final String WORDS_JOURNAL_FILE = "words_file.journal";
+    // when journal grows beyond this size, it is merged into binary file in the background
+    private static final long JOURNAL_COMPACTION_THRESHOLD = 64 * 1024;
+    private static final String COMPACTED_SUFFIX = ".compacted";
+    // scores are written this long after they are saved, so that scores saved meanwhile are written together
+    private static final long SCORES_WRITE_DELAY_MS = 1000;
+
+    // all reads and writes of words files are synchronized on this lock, because compaction runs in background
+    private static final Object STORAGE_LOCK = new Object();
+    // single background thread for writing pending scores and compaction
+    private static final ScheduledExecutorService storageExecutor = Executors.newSingleThreadScheduledExecutor();
+    private static boolean compactionScheduled = false;
+    // scores waiting to be written by word ID; guarded by itself, not by STORAGE_LOCK
+    private static final Map<String, List<Integer>> pendingScores = new LinkedHashMap<>();
+    private static boolean scoresWriteScheduled = false;
+    // increased every time binary file is replaced; compaction is abandoned if it changes meanwhile
+    private static int storageGeneration = 0;
 
     private Context context;
 
@@ -49,40 +98,251 @@ public class DataStorageManager {
     }
 
     /**
-     * Reads words from storage. If file is not found, an empty String is returned.
-     * @return list of words or an empty list if data file is not found
+     * Reads words from storage. Words are read from binary file and changes from journal are applied to
+     * them. If binary file does not exist yet, words are streamed from JSON file using
+     * {@link WordJsonStreamReader} (if it exists), changes from journal are applied to them and they
+     * are written to binary file.
+     * @return list of words or an empty list if no words were saved yet
+     */
+    public ArrayList<Word> readWordsFromStorage() throws IOException, Word.UnsuccessfulWordCreationException, JSONException, Word.DuplicatedIdException {
+        synchronized (STORAGE_LOCK) {
+            AtomicDataFile binaryFile = getBinaryFile();
+            if (binaryFile.exists()) {
+                ArrayList<Word> list = BinaryWordFormat.read(binaryFile.read());
+                WordJournal journal = getJournal();
+                writePendingScores(journal);
+                long replayedLength = journal.replay(list);
+                if (replayedLength < journal.length()) {
+                    // last record was not completely written, it must be removed so new records can be appended
+                    journal.truncate(replayedLength);
+                }
+                checkForDuplicatedIds(list);
+                scheduleCompactionIfNeeded(journal);
+                return list;
+            }
+
+            FileInputStream fis = null;
+            try {
+                fis = context.openFileInput(WORDS_FILE);
+            } catch (FileNotFoundException e) {
+                // first start of the app, there are no words yet
+            }
+            ArrayList<Word> list = fis == null ? new ArrayList<>() : convertToListOfWords(fis);
+            // words saved since the first start are only in journal
+            WordJournal journal = getJournal();
+            writePendingScores(journal);
+            journal.replay(list);
+            checkForDuplicatedIds(list);
+            // binary file contains all changes, so journal is removed
+            writeWordsToStorage(list);
+            return list;
+        }
+    }
+
+    /**
+     * Saves list of words to storage in binary format. Previous binary file is kept as a backup.
+     * Journal is removed, because all its changes are contained in given list.
+     * @param words list of words to save
+     * @throws Word.UnsuccessfulWordCreationException if word ID is missing or duplicated or word is missing crucial data
+     */
+    public void writeWordsToStorage(List<Word> words) throws Word.UnsuccessfulWordCreationException, IOException {
+        verifyWordsBeforeWriting(words);
+        synchronized (STORAGE_LOCK) {
+            getBinaryFile().write(out -> BinaryWordFormat.write(words, out));
+            getJournal().delete();
+            // given words already contain all scores
+            synchronized (pendingScores) {
+                pendingScores.clear();
+            }
+            storageGeneration++;
+        }
+    }
+
+    /**
+     * Saves a new word to storage without rewriting other words.
+     * @throws Word.UnsuccessfulWordCreationException if word ID is missing or word is missing crucial data
+     */
+    public void addWordToStorage(Word word) throws Word.UnsuccessfulWordCreationException, IOException {
+        verifyWordsBeforeWriting(Collections.singletonList(word));
+        synchronized (STORAGE_LOCK) {
+            WordJournal journal = getJournal();
+            writePendingScores(journal);
+            journal.appendAdd(word);
+            scheduleCompactionIfNeeded(journal);
+        }
+    }
+
+    /**
+     * Saves an edited word to storage without rewriting other words. Word with the same ID is replaced.
+     * If it does not exist, word is added.
+     * @throws Word.UnsuccessfulWordCreationException if word ID is missing or word is missing crucial data
+     */
+    public void updateWordInStorage(Word word) throws Word.UnsuccessfulWordCreationException, IOException {
+        verifyWordsBeforeWriting(Collections.singletonList(word));
+        synchronized (STORAGE_LOCK) {
+            WordJournal journal = getJournal();
+            writePendingScores(journal);
+            journal.appendUpdate(word);
+            scheduleCompactionIfNeeded(journal);
+        }
+    }
+
+    /**
+     * Removes word with given ID from storage without rewriting other words.
+     */
+    public void removeWordFromStorage(String id) throws IOException {
+        synchronized (STORAGE_LOCK) {
+            WordJournal journal = getJournal();
+            writePendingScores(journal);
+            journal.appendDelete(id);
+            scheduleCompactionIfNeeded(journal);
+        }
+    }
+
+    /**
+     * Saves scores of given words without rewriting other words. Scores are copied and written
+     * in the background, so this method never waits for disk.
+     */
+    public void updateScoresInStorage(List<Word> words) {
+        synchronized (pendingScores) {
+            for (Word word : words) {
+                pendingScores.put(word.getId(), new ArrayList<>(word.getScores()));
+            }
+            if (!scoresWriteScheduled) {
+                scoresWriteScheduled = true;
+                final DataStorageManager manager = new DataStorageManager(context.getApplicationContext());
+                storageExecutor.schedule(manager::writePendingScoresInBackground, SCORES_WRITE_DELAY_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Writes pending scores immediately and waits until they are written. Meant to be called when
+     * app is closing.
      */
-    public List<Word> readWordsFromStorage() throws IOException, Word.UnsuccessfulWordCreationException, JSONException, Word.DuplicatedIdException {
+    public void flushAndWait() throws IOException {
+        synchronized (STORAGE_LOCK) {
+            WordJournal journal = getJournal();
+            writePendingScores(journal);
+            scheduleCompactionIfNeeded(journal);
+        }
+    }
+
+    private void writePendingScoresInBackground() {
+        synchronized (pendingScores) {
+            scoresWriteScheduled = false;
+        }
         try {
-            return convertToListOfWords(readFromStorage(WORDS_FILE));
-        } catch (FileNotFoundException e) {
-            return new ArrayList<>();
+            flushAndWait();
+        } catch (IOException e) {
+            Log.w(TAG, "Writing scores failed", e);
         }
     }
 
     /**
-     * Writes file to internal storage.
-     * @param filename name of the file
-     * @param content content to be written to the file
+     * Appends pending scores to journal. Must be called while holding {@link #STORAGE_LOCK}.
+     * If writing fails, scores that were not saved again meanwhile are kept pending.
+     */
+    private static void writePendingScores(WordJournal journal) throws IOException {
+        final Map<String, List<Integer>> scores;
+        synchronized (pendingScores) {
+            if (pendingScores.isEmpty()) {
+                return;
+            }
+            scores = new LinkedHashMap<>(pendingScores);
+            pendingScores.clear();
+        }
+        try {
+            for (Map.Entry<String, List<Integer>> entry : scores.entrySet()) {
+                journal.appendScores(entry.getKey(), entry.getValue());
+            }
+        } catch (IOException e) {
+            synchronized (pendingScores) {
+                scores.forEach(pendingScores::putIfAbsent);
+            }
+            throw e;
+        }
+    }
+
+    private AtomicDataFile getBinaryFile() {
+        return new AtomicDataFile(context.getFileStreamPath(WORDS_BINARY_FILE));
+    }
+
+    private WordJournal getJournal() {
+        return new WordJournal(context.getFileStreamPath(WORDS_JOURNAL_FILE));
+    }
+
+    /**
+     * Schedules merging of journal into binary file, if journal is large enough. Must be called
+     * while holding {@link #STORAGE_LOCK}.
      */
-    public void writeToStorage(String filename, String content) throws IOException {
-        FileOutputStream fos = context.openFileOutput(filename, Context.MODE_PRIVATE);
-        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(fos));
-        writer.write(content);
-        writer.close();
+    private void scheduleCompactionIfNeeded(WordJournal journal) {
+        if (compactionScheduled || journal.length() < JOURNAL_COMPACTION_THRESHOLD) {
+            return;
+        }
+        compactionScheduled = true;
+        final DataStorageManager manager = new DataStorageManager(context.getApplicationContext());
+        storageExecutor.execute(manager::compactJournal);
     }
 
     /**
-     * Converts list of words to JSON string and saves it to storage.
-     * @param words list of words to save
+     * Merges journal into binary file. Binary file and journal are read while holding the lock, but words
+     * are parsed and written to a temporary file without it, so that changes can still be appended to
+     * journal meanwhile. Those are then moved to a new journal, when temporary file replaces binary file.
+     * If binary file was rewritten in the meantime, compaction is abandoned.
      */
-    public void writeWordsToStorage(List<Word> words) throws JSONException, Word.UnsuccessfulWordCreationException, IOException {
-        writeToStorage(WORDS_FILE, convertToJson(words));
+    private void compactJournal() {
+        final AtomicDataFile binaryFile = getBinaryFile();
+        final File compactedFile = context.getFileStreamPath(WORDS_BINARY_FILE + COMPACTED_SUFFIX);
+        final File newJournalFile = context.getFileStreamPath(WORDS_JOURNAL_FILE + ".new");
+        try {
+            final int generation;
+            final ByteBuffer binaryData;
+            final ByteBuffer journalData;
+            WordJournal journal = getJournal();
+            synchronized (STORAGE_LOCK) {
+                generation = storageGeneration;
+                binaryData = binaryFile.read();
+                // journal is copied, because reading words may truncate it while it is being replayed
+                journalData = journal.read();
+            }
+            ArrayList<Word> list = BinaryWordFormat.read(binaryData);
+            long replayedLength = WordJournal.replay(list, journalData);
+            binaryFile.writeTemporary(COMPACTED_SUFFIX, out -> BinaryWordFormat.write(list, out));
+
+            synchronized (STORAGE_LOCK) {
+                if (generation != storageGeneration) {
+                    return;
+                }
+                // move records that were appended during compaction to new journal
+                try (FileInputStream in = new FileInputStream(journal.getFile());
+                     FileOutputStream out = new FileOutputStream(newJournalFile)) {
+                    FileChannel channel = in.getChannel();
+                    channel.transferTo(replayedLength, channel.size() - replayedLength, out.getChannel());
+                    out.getFD().sync();
+                }
+                binaryFile.commit(compactedFile);
+                if (!newJournalFile.renameTo(journal.getFile())) {
+                    throw new IOException("Renaming compacted journal failed");
+                }
+                storageGeneration++;
+            }
+        } catch (IOException | Word.UnsuccessfulWordCreationException e) {
+            Log.w(TAG, "Compaction of words journal failed", e);
+        } finally {
+            compactedFile.delete();
+            newJournalFile.delete();
+            synchronized (STORAGE_LOCK) {
+                compactionScheduled = false;
+            }
+        }
     }
 
     /**
      * Takes string in a JSON format as an argument and parses it. Data is then returned as an
      * ArrayList of {@link Word}. Each individual word is parsed from JSON format using {@link Word#getWordFromJson(JSONObject)}.
+     * If you are reading from a file, use {@link #convertToListOfWords(InputStream)} instead,
+     * which does not need the whole file in memory.
      * @param jsonText string in JSON format describing list of words
      * @return arrayList of words composed from received JSON string
      * @throws JSONException
@@ -98,17 +358,73 @@ public class DataStorageManager {
         for (int i = 0; i < jsonArray.length(); i++) {
             list.add(Word.getWordFromJson(jsonArray.getJSONObject(i)));
         }
+        setMissingIdsAndCheckDuplicates(list);
+        return list;
+    }
+
+    /**
+     * Reads words in a JSON format from stream and returns them as an ArrayList of {@link Word}.
+     * Words are created one by one while the stream is being read by {@link WordJsonStreamReader}.
+     * Stream is closed afterwards.
+     * @param inputStream stream containing JSON describing list of words
+     * @return arrayList of words read from the stream
+     */
+    public ArrayList<Word> convertToListOfWords(InputStream inputStream) throws IOException, JSONException, Word.DuplicatedIdException, Word.UnsuccessfulWordCreationException {
+        ArrayList<Word> list = new ArrayList<>();
+        try (WordJsonStreamReader reader = new WordJsonStreamReader(inputStream)) {
+            while (reader.hasNext()) {
+                list.add(reader.next());
+            }
+        }
+        setMissingIdsAndCheckDuplicates(list);
+        return list;
+    }
 
-        // add IDs to those that do not have them
+    /**
+     * Adds IDs to words that do not have them and verifies that there are no duplicates.
+     * @throws Word.DuplicatedIdException if IDs are duplicated
+     */
+    private static void setMissingIdsAndCheckDuplicates(List<Word> list) throws Word.DuplicatedIdException {
+        IdAllocator idAllocator = new IdAllocator(list);
         for (Word word : list) {
             if(word.getId() == null){
-                word.setIdAndAvoidDuplication(list);
+                word.setId(idAllocator.nextId());
             }
         }
-        if(list.stream().map(Word::getId).distinct().count() != list.size()){
+        checkForDuplicatedIds(list);
+    }
+
+    private static void checkForDuplicatedIds(List<Word> list) throws Word.DuplicatedIdException {
+        if(hasDuplicatedIds(list)){
             throw new Word.DuplicatedIdException("Duplicated Word ID");
         }
-        return list;
+    }
+
+    private static boolean hasDuplicatedIds(List<Word> list) {
+        Set<String> ids = new HashSet<>(list.size() * 2);
+        for (Word word : list) {
+            if (!ids.add(word.getId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Verifies that words can be written to storage or converted to JSON. Each word must have an ID,
+     * IDs must not be duplicated and each word must have either description or translated word.
+     * @throws Word.UnsuccessfulWordCreationException if any of the rules is broken
+     */
+    public static void verifyWordsBeforeWriting(List<Word> list) throws Word.UnsuccessfulWordCreationException {
+        if(list.stream().anyMatch(word -> word.getId() == null)){
+            throw new Word.UnsuccessfulWordCreationException("Missing Word ID");
+        }
+        if(hasDuplicatedIds(list)){
+            throw new Word.UnsuccessfulWordCreationException("Duplicated Word ID");
+        }
+        if(list.stream().anyMatch(word -> !word.hasDescription() && !word.hasTranslatedWords())){
+            throw new Word.UnsuccessfulWordCreationException("Crucial data (description and translated word) is missing");
+        }
     }
 
     /**
@@ -119,12 +435,7 @@ public class DataStorageManager {
      * @throws Word.UnsuccessfulWordCreationException if word is missing or duplicated
      */
     public String convertToJson(List<Word> list) throws JSONException, Word.UnsuccessfulWordCreationException {
-        if(list.stream().anyMatch(word -> word.getId() == null)){
-            throw new Word.UnsuccessfulWordCreationException("Missing Word ID");
-        }
-        if(list.stream().map(Word::getId).distinct().count() != list.size()){
-            throw new Word.UnsuccessfulWordCreationException("Duplicated Word ID");
-        }
+        verifyWordsBeforeWriting(list);
         JSONObject obj = new JSONObject();
         JSONArray jsonArray = new JSONArray();
         for (Word word : list) {
@@ -0,0 +1,47 @@
+package com.krikki.vocabularytrainer;
+
+import java.util.Collection;
+
+/**
+ * Creates unique word IDs in constant time. IDs keep the format used so far: current time in
+ * milliseconds multiplied by 1000, plus a counter for IDs created in the same millisecond.
+ * <p>
+ * Allocator remembers the highest ID, that it has given out or that already exists, and every
+ * new ID is higher than that. Allocator must therefore know about all existing IDs - it is seeded
+ * with existing words and IDs set in any other way must be passed to {@link #register(String)}.
+ */
+final class IdAllocator {
+    private long highestId = 0;
+
+    /**
+     * Creates allocator seeded with IDs of given words. Words without IDs are ignored.
+     */
+    IdAllocator(Collection<Word> words) {
+        for (Word word : words) {
+            register(word.getId());
+        }
+    }
+
+    /**
+     * Returns a new unique ID.
+     */
+    String nextId() {
+        highestId = Math.max(highestId + 1, System.currentTimeMillis() * 1000);
+        return String.valueOf(highestId);
+    }
+
+    /**
+     * Makes allocator aware of an existing ID, so that it will never be returned. IDs that are
+     * not numbers cannot collide with created IDs and are ignored.
+     */
+    void register(String id) {
+        if (id == null) {
+            return;
+        }
+        try {
+            highestId = Math.max(highestId, Long.parseLong(id));
+        } catch (NumberFormatException e) {
+            // not a generated ID
+        }
+    }
+}
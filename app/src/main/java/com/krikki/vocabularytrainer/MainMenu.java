@@ -3,6 +3,7 @@ package com.krikki.vocabularytrainer;
 import android.annotation.SuppressLint;
 import android.content.Intent;
 import android.os.Bundle;
+import android.util.Log;
 import android.view.View;
 import android.view.Window;
 import android.view.WindowManager;
@@ -12,6 +13,8 @@ import com.krikki.vocabularytrainer.dictionary.Dictionary;
 import com.krikki.vocabularytrainer.games.GameMenu;
 import com.krikki.vocabularytrainer.settings.SettingsMenu;
 
+import java.io.IOException;
+
 import androidx.appcompat.app.ActionBar;
 import androidx.appcompat.app.AppCompatActivity;
 
@@ -72,4 +75,17 @@ public class MainMenu extends AppCompatActivity {
             startActivity(intent);
         });
     }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (isFinishing()) {
+            // app is closing, scores saved in the last game may still be waiting to be written
+            try {
+                WordRepository.getInstance(this).flushAndWait();
+            } catch (IOException e) {
+                Log.w("MainMenu", "Writing scores failed", e);
+            }
+        }
+    }
 }
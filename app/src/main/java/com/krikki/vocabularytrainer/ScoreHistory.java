@@ -0,0 +1,82 @@
+package com.krikki.vocabularytrainer;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * History of individual scores of a word, stored in a fixed size ring buffer of bytes. Index 0 is
+ * the most recent score. When history is full, adding a new score overwrites the oldest one.
+ * <p>
+ * A word only needs this object and a small byte array, instead of a list node and a boxed
+ * integer for every score.
+ */
+final class ScoreHistory {
+    private final byte[] scores;
+    private int head = 0; // position of the most recent score
+    private int size = 0;
+
+    ScoreHistory(int capacity) {
+        scores = new byte[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns score at given index, where 0 is the most recent one.
+     */
+    int get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        int position = head + index;
+        return scores[position < scores.length ? position : position - scores.length];
+    }
+
+    /**
+     * Adds a new most recent score. If history is full, the oldest score is removed.
+     */
+    void add(int score) {
+        head = head == 0 ? scores.length - 1 : head - 1;
+        scores[head] = (byte) score;
+        if (size < scores.length) {
+            size++;
+        }
+    }
+
+    /**
+     * Replaces history with given scores, where the most recent score is first. Scores beyond
+     * capacity are ignored.
+     */
+    void set(List<Integer> newScores) {
+        size = Math.min(newScores.size(), scores.length);
+        head = 0;
+        for (int i = 0; i < size; i++) {
+            scores[i] = newScores.get(i).byteValue();
+        }
+    }
+
+    void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * Returns an unmodifiable list view of scores, where the most recent score is first. View
+     * reflects later changes of history.
+     */
+    List<Integer> asList() {
+        return new AbstractList<Integer>() {
+            @Override
+            public Integer get(int index) {
+                return ScoreHistory.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+}
@@ -1,17 +1,21 @@
 package com.krikki.vocabularytrainer;
 
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import com.krikki.vocabularytrainer.util.StringManipulator;
+
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.IOException;
 import java.text.ParseException;
 import java.text.RuleBasedCollator;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -33,7 +37,7 @@ import java.util.stream.Collectors;
  * alphabet merged from multiple alphabet. It contains letters like č,š,ž, ć,đ, é,ě,ô,ó, ä,ë,ö, î,ř (not all are listed here).
  * <p>
  * For filtering words, where you want query 'cev' to find 'čevapi', but not 'člo' to find cloud, you can use
- * map {@link #letterSimplified}. It maps non english letters (those which are also in {@link RuleBasedCollator})
+ * table {@link #letterSimplified}. It maps non english letters (those which are also in {@link RuleBasedCollator})
  * to most similar english letters. Class {@link com.krikki.vocabularytrainer.util.StringManipulator}
  * contains utility methods for such usage. For example method
  * {@link com.krikki.vocabularytrainer.util.StringManipulator#isSubstringSimplifiedFrom(String, String)} uses this
@@ -84,6 +88,11 @@ public class Word {
      */
     public static final String FORBIDDEN_SIGNS_FOR_WORDS_REGEX = "\"\\(\\)/<>:;?'*";
 
+    // classes of ASCII characters used when validating words, so that no regex is needed
+    private static final byte CHAR_FORBIDDEN = 1; // one of FORBIDDEN_SIGNS_FOR_WORDS
+    private static final byte CHAR_CATEGORY = 1 << 1; // allowed in category
+    private static final byte[] CHAR_CLASSES = createCharClasses();
+
     /* Collation rules specify sorting order using RuleBasedCollator
      * < letter difference
      * ; accent difference
@@ -101,19 +110,9 @@ public class Word {
             " r,R < ř,Ř < s,S < š,Š < t,T < u,U; ú,Ú < ü,Ü < v,V < w,W < x,X < y,Y < z,Z < ž,Ž";
     private static RuleBasedCollator ruleBasedCollator;
     // maps uncommon letters (with accents etc.) to their closest base letters - can be used when searching for words
-    // this code here creates a map that maps from each letter in first string to letter in second string
-    public static Map<Integer, Integer> letterSimplified = Arrays.stream(new String[][]{{"áÁâÂäÄ", "a"}, {"ß", "b"}, {"čČćĆ", "c"}, {"đĐ", "d"}, {"éÉěĚëË", "e"}, {"íÍîÎ", "i"}, {"łŁ", "l"}, {"óÓôÔöÖ", "o"}, {"řŘ", "r"}, {"šŠ", "s"}, {"úÚüÜ", "u"}, {"žŽ", "z"}})
-            .map(s -> {
-                char[] a = s[0].toCharArray();
-                int value = s[1].charAt(0);
-                Integer[][] b = new Integer[a.length][2];
-                for (int i = 0; i < a.length; i++) {
-                    b[i][0] = (int) a[i];
-                    b[i][1] = value;
-                }
-                return b;
-            }).flatMap(Arrays::stream)
-            .collect(Collectors.toMap(data -> data[0], data -> data[1]));
+    // letterSimplified[c] is the simplified letter of c; other letters map to themselves and letters beyond
+    // the end of the table are never simplified (see StringManipulator.simplifyChar)
+    public static final char[] letterSimplified = createLetterSimplified();
 
     //Total score is calculated from individual scores in List scores
     public static final int MAX_TOTAL_SCORE = 100;
@@ -123,6 +122,9 @@ public class Word {
 
     // length of List scores
     private static final int SCORES_LENGTH = 5;
+    // SCORE_TERMS[i][x] is contribution of individual score x at position i (0 is the most recent)
+    // to total score; see calculateScore(ScoreHistory)
+    private static final double[][] SCORE_TERMS = createScoreTerms();
 
     private String mainLanguage, supportingLanguage;
     private String id;
@@ -140,50 +142,64 @@ public class Word {
     private String translatedNote;
 
     // scores is history of scores. Its maximum length is SCORES_LENGTH (5). When new score is
-    // added it is prepended to list.
-    private List<Integer> scores = new LinkedList<>();
+    // added it becomes the first one and the oldest one is removed if history is full.
+    private final ScoreHistory scores = new ScoreHistory(SCORES_LENGTH);
     private int score = -1;
 
     private WordType wordType;
     private String[] categories;
 
+    // simplified forms (see StringManipulator.simplify) of words, translated words and synonyms are
+    // created when they are first needed and cleared by setters
+    private volatile String[] simplifiedWords;
+    private volatile String[] simplifiedSynonyms;
+    private volatile String[] simplifiedTranslatedWords;
+    private volatile String[] simplifiedTranslatedSynonyms;
+
     /* CONSTRUCTORS */
     public Word(String word) throws UnsuccessfulWordCreationException {
         this.setWord(word);
     }
 
-    private Word(String[] array) throws UnsuccessfulWordCreationException {
+    Word(String[] array) throws UnsuccessfulWordCreationException {
         word = prepareWordAttributeFromArray(array, "Word", false);
     }
 
     /* SETTERS */
     public void setWord(String word) throws UnsuccessfulWordCreationException {
         this.word = prepareWordAttributeFromString(word, "Word", false);
+        this.simplifiedWords = null;
     }
 
     public void setSynonym(String synonym) throws UnsuccessfulWordCreationException {
         this.synonyms = prepareWordAttributeFromString(synonym, "Synonym", true);
+        this.simplifiedSynonyms = null;
     }
 
-    private void setSynonym(String[] synonyms) throws UnsuccessfulWordCreationException {
+    void setSynonym(String[] synonyms) throws UnsuccessfulWordCreationException {
         this.synonyms = prepareWordAttributeFromArray(synonyms, "Synonym", true);
+        this.simplifiedSynonyms = null;
     }
 
     public void setTranslatedWord(String translatedWord) throws UnsuccessfulWordCreationException {
         // translated word is allowed to be removed. But when saving it or description will have to exist
         this.translatedWord = prepareWordAttributeFromString(translatedWord, "Translated word", true);
+        this.simplifiedTranslatedWords = null;
     }
 
-    private void setTranslatedWord(String[] translatedWords) throws UnsuccessfulWordCreationException {
+    void setTranslatedWord(String[] translatedWords) throws UnsuccessfulWordCreationException {
         this.translatedWord = prepareWordAttributeFromArray(translatedWords, "Translated word", true);
+        this.simplifiedTranslatedWords = null;
     }
 
     public void setTranslatedSynonym(String translatedSynonym) throws UnsuccessfulWordCreationException {
         this.translatedSynonyms = prepareWordAttributeFromString(translatedSynonym, "Translated synonym", true);
+        this.simplifiedTranslatedSynonyms = null;
     }
 
-    private void setTranslatedSynonym(String[] translatedSynonyms) throws UnsuccessfulWordCreationException {
+    void setTranslatedSynonym(String[] translatedSynonyms) throws UnsuccessfulWordCreationException {
         this.translatedSynonyms = prepareWordAttributeFromArray(translatedSynonyms, "Translated synonym", true);
+        this.simplifiedTranslatedSynonyms = null;
     }
 
     public void setDescription(String description) {
@@ -200,7 +216,7 @@ public class Word {
     }
     // TODO
 public List<Integer> getScores(){
-        return scores;
+        return scores.asList();
 }
 
     public void setNote(String note) {
@@ -261,7 +277,7 @@ public List<Integer> getScores(){
             categories[i] = categories[i].trim();
             if (categories[i].isEmpty()) {
                 throw new UnsuccessfulWordCreationException("Some categories have zero length");
-            } else if (!categories[i].matches("[-a-zA-Z_0-9+]+")) {
+            } else if (!isValidCategory(categories[i])) {
                 throw new UnsuccessfulWordCreationException("Categories can only contain english letters, numbers and these three signs -_+");
             }
         }
@@ -273,7 +289,7 @@ public List<Integer> getScores(){
 
     /**
      * Sets scores from given String. String is split by comma and parsed to integers. If setting
-     * scores fails due to NumberFormatException, they will be set to null. This method also updates
+     * scores fails due to NumberFormatException, they will be cleared. This method also updates
      * total score field. If there are more numbers in string than {@link #SCORES_LENGTH}, redundant
      * numbers are cut off. To add a single new score add the beginning of the list, use {@link #addNewScore(int)}.
      *
@@ -281,21 +297,28 @@ public List<Integer> getScores(){
      */
     private void setScores(String scores) throws UnsuccessfulWordCreationException {
         try {
-            List<Integer> sc = Arrays.stream(scores.split(",")).map(Integer::parseInt).collect(Collectors.toList());
-            if (sc.stream().anyMatch(i -> i > MAX_INDIVIDUAL_SCORE || i < MIN_INDIVIDUAL_SCORE)) {
-                throw new UnsuccessfulWordCreationException("Invalid score number");
-            }
-            if (sc.size() > SCORES_LENGTH) {
-                sc.subList(0, SCORES_LENGTH);
-            }
-            this.scores = sc;
-            this.score = calculateScore(sc);
+            setScores(Arrays.stream(scores.split(",")).map(Integer::parseInt).collect(Collectors.toList()));
         } catch (NumberFormatException e) {
-            this.scores = new LinkedList<>();
+            this.scores.clear();
             this.score = -1;
         }
     }
 
+    /**
+     * Sets scores from given list, where the most recent score is first. This method also updates
+     * total score field.
+     *
+     * @throws UnsuccessfulWordCreationException if score is out of bounds
+     */
+    void setScores(List<Integer> sc) throws UnsuccessfulWordCreationException {
+        if (sc.stream().anyMatch(i -> i > MAX_INDIVIDUAL_SCORE || i < MIN_INDIVIDUAL_SCORE)) {
+            throw new UnsuccessfulWordCreationException("Invalid score number");
+        }
+        // scores beyond SCORES_LENGTH are cut off
+        this.scores.set(sc);
+        this.score = calculateScore(scores);
+    }
+
     /**
      * Adds new score to the beginning of score list. It removes the oldest (last in the list) score,
      * if size of the list matches {@link #SCORES_LENGTH}. Score must be within bounds specified by
@@ -308,10 +331,7 @@ public List<Integer> getScores(){
         if (newScore > MAX_INDIVIDUAL_SCORE || newScore < MIN_INDIVIDUAL_SCORE) {
             throw new IllegalArgumentException("Word score must be between MIN_INDIVIDUAL_SCORE and MAX_INDIVIDUAL_SCORE");
         }
-        if (scores.size() == SCORES_LENGTH) {
-            scores.remove(scores.size() - 1);
-        }
-        scores.add(0, newScore);
+        scores.add(newScore);
         this.score = calculateScore(scores);
     }
 
@@ -368,6 +388,51 @@ public List<Integer> getScores(){
         return translatedSynonyms;
     }
 
+    /**
+     * Returns words with localized letters replaced by english ones (see {@link StringManipulator#simplify(String)}).
+     * Result is cached until words are set again.
+     */
+    public String[] getSimplifiedWords() {
+        String[] simplified = simplifiedWords;
+        if (simplified == null) {
+            simplified = simplifiedWords = simplifyAll(word);
+        }
+        return simplified;
+    }
+
+    /**
+     * Returns synonyms in simplified form or null if there are none. See {@link #getSimplifiedWords()}.
+     */
+    public String[] getSimplifiedSynonyms() {
+        String[] simplified = simplifiedSynonyms;
+        if (simplified == null && synonyms != null) {
+            simplified = simplifiedSynonyms = simplifyAll(synonyms);
+        }
+        return simplified;
+    }
+
+    /**
+     * Returns translated words in simplified form or null if there are none. See {@link #getSimplifiedWords()}.
+     */
+    public String[] getSimplifiedTranslatedWords() {
+        String[] simplified = simplifiedTranslatedWords;
+        if (simplified == null && translatedWord != null) {
+            simplified = simplifiedTranslatedWords = simplifyAll(translatedWord);
+        }
+        return simplified;
+    }
+
+    /**
+     * Returns translated synonyms in simplified form or null if there are none. See {@link #getSimplifiedWords()}.
+     */
+    public String[] getSimplifiedTranslatedSynonyms() {
+        String[] simplified = simplifiedTranslatedSynonyms;
+        if (simplified == null && translatedSynonyms != null) {
+            simplified = simplifiedTranslatedSynonyms = simplifyAll(translatedSynonyms);
+        }
+        return simplified;
+    }
+
     public String getTranslatedSynonymsJoined() {
         return translatedSynonyms != null ? String.join(", ", translatedSynonyms) : "";
     }
@@ -465,11 +530,19 @@ public List<Integer> getScores(){
                 }
             }
             checkForForbiddenCharacters(word, "Word", true);
-            arrayToSet[i] = word.trim().replaceAll("\\s{2,}", " ");
+            arrayToSet[i] = collapseWhitespace(word.trim());
         }
         return arrayToSet;
     }
 
+    private static String[] simplifyAll(String[] strings) {
+        String[] simplified = new String[strings.length];
+        for (int i = 0; i < strings.length; i++) {
+            simplified[i] = StringManipulator.simplify(strings[i]);
+        }
+        return simplified;
+    }
+
     /**
      * Trims string if it exists, otherwise (if empty or null) returns null.
      */
@@ -484,30 +557,41 @@ public List<Integer> getScores(){
     /**
      * Calculate score from score list. If there are fewer scores than 3, it returns -1.
      * Otherwise it uses exponential formula so that most recent scores have the highest value.
+     * Terms of the formula are taken from {@link #SCORE_TERMS}.
      *
-     * @param scores list of scores
-     * @return score calculated from given list
+     * @param scores history of scores
+     * @return score calculated from given history
      */
-    private static int calculateScore(List<Integer> scores) {
+    private static int calculateScore(ScoreHistory scores) {
         if (scores.size() < 3) {
             return -1;
         }
-        double s = 1.14;
-        double t = 0.21;
-        double f = 2.21;
-        Iterator<Integer> iter = scores.iterator();
-        double score = 0;
-        try {
-            score = Math.pow(iter.next(), s) * f;
-            score += Math.pow(iter.next(), s - 0.3 * t) * f;
-            score += Math.pow(iter.next(), s - 0.6 * t) * f;
-            score += Math.pow(iter.next(), s - 1.3 * t) * f;
-            score += Math.pow(iter.next(), s - 2.0 * t) * f;
-        } catch (Exception e) {
+        // terms are summed in the same order as the formula would be evaluated, so result is identical
+        double score = SCORE_TERMS[0][scores.get(0)];
+        for (int i = 1; i < scores.size(); i++) {
+            score += SCORE_TERMS[i][scores.get(i)];
         }
         return Math.min(Math.max((int) score, MIN_TOTAL_SCORE), MAX_TOTAL_SCORE);
     }
 
+    /**
+     * Precomputes terms of total score formula for every position in history and every individual
+     * score. Term for score x at position i is x^(s - e_i * t) * f, where e_i is 0, 0.3, 0.6, 1.3 and 2.0.
+     */
+    private static double[][] createScoreTerms() {
+        final double s = 1.14;
+        final double t = 0.21;
+        final double f = 2.21;
+        final double[] exponents = {s, s - 0.3 * t, s - 0.6 * t, s - 1.3 * t, s - 2.0 * t};
+        double[][] terms = new double[SCORES_LENGTH][MAX_INDIVIDUAL_SCORE + 1];
+        for (int i = 0; i < SCORES_LENGTH; i++) {
+            for (int x = 0; x <= MAX_INDIVIDUAL_SCORE; x++) {
+                terms[i][x] = Math.pow(x, exponents[i]) * f;
+            }
+        }
+        return terms;
+    }
+
     /**
      * Checks that word is not null, that it does not start or end with comma and it does not have two commas consecutively.
      * It does not check word's length, because some words are allowed to be empty.
@@ -525,18 +609,151 @@ public List<Integer> getScores(){
      * @param commaForbidden  if comma is forbidden
      */
     private static void checkForForbiddenCharacters(String text, String textDescription, boolean commaForbidden) throws UnsuccessfulWordCreationException {
-        String rgx = commaForbidden ? "," : "";
-        if (text.matches(".*[" + FORBIDDEN_SIGNS_FOR_WORDS_REGEX + rgx + "].*")) {
+        if (containsForbiddenCharacter(text, commaForbidden)) {
             throw new UnsuccessfulWordCreationException(textDescription + " contains invalid characters! Those are " + FORBIDDEN_SIGNS_FOR_WORDS);
         }
     }
 
+    /**
+     * Returns true if text contains a forbidden character. It gives the same result as matching
+     * regex ".*[forbidden signs].*", which means text containing a line terminator is never
+     * rejected, because '.' does not match it.
+     */
+    private static boolean containsForbiddenCharacter(String text, boolean commaForbidden) {
+        boolean forbiddenFound = false;
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            if (c < 128) {
+                if ((CHAR_CLASSES[c] & CHAR_FORBIDDEN) != 0 || (commaForbidden && c == ',')) {
+                    forbiddenFound = true;
+                } else if (c == '\n' || c == '\r') {
+                    return false;
+                }
+            } else if (c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return false;
+            }
+        }
+        return forbiddenFound;
+    }
+
+    /**
+     * Returns true if category is not empty and only contains english letters, numbers and signs -_+.
+     */
+    private static boolean isValidCategory(String category) {
+        if (category.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < category.length(); i++) {
+            final char c = category.charAt(i);
+            if (c >= 128 || (CHAR_CLASSES[c] & CHAR_CATEGORY) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true for characters matched by regex \s (space, \t, \n, \u000B, \f and \r).
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || (c >= '\t' && c <= '\r');
+    }
+
+    /**
+     * Replaces every sequence of two or more whitespace characters with a single space. Single
+     * whitespace characters are kept as they are.
+     */
+    private static String collapseWhitespace(String text) {
+        return removeSpaces(text, false);
+    }
+
     /**
      * Removes double or multiple spaces and replaces them with single one. It also removes spaces
      * around commas.
      */
     private static String removeRedundantSpaces(String text) {
-        return text.replaceAll("\\s{2,}", " ").replaceAll(" ?, ?", ",");
+        return removeSpaces(text, true);
+    }
+
+    /**
+     * Collapses whitespace sequences and optionally removes one space on each side of every comma.
+     * Result is the same as of text.replaceAll("\\s{2,}", " ") followed by replaceAll(" ?, ?", ",")
+     * when aroundCommas is true. If nothing needs to be changed, text itself is returned.
+     */
+    private static String removeSpaces(String text, boolean aroundCommas) {
+        final int length = text.length();
+        boolean changeNeeded = false;
+        for (int i = 1; i < length && !changeNeeded; i++) {
+            final char previous = text.charAt(i - 1);
+            final char c = text.charAt(i);
+            changeNeeded = (isWhitespace(previous) && isWhitespace(c))
+                    || (aroundCommas && ((previous == ' ' && c == ',') || (previous == ',' && c == ' ')));
+        }
+        if (!changeNeeded) {
+            return text;
+        }
+
+        StringBuilder sb = new StringBuilder(length);
+        boolean afterComma = false; // a space right after comma is removed
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (isWhitespace(c) && i + 1 < length && isWhitespace(text.charAt(i + 1))) {
+                c = ' ';
+                while (i + 1 < length && isWhitespace(text.charAt(i + 1))) {
+                    i++;
+                }
+            }
+            if (aroundCommas) {
+                if (c == ' ' && afterComma) {
+                    afterComma = false;
+                    continue;
+                }
+                if (c == ',' && sb.length() > 0 && sb.charAt(sb.length() - 1) == ' ') {
+                    sb.setLength(sb.length() - 1);
+                }
+                afterComma = c == ',';
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Creates table for {@link #letterSimplified}, which maps each letter in first string to letter
+     * in second string. It is only as long as needed for the highest mapped letter.
+     */
+    private static char[] createLetterSimplified() {
+        final String[][] letters = {{"áÁâÂäÄ", "a"}, {"ß", "b"}, {"čČćĆ", "c"}, {"đĐ", "d"}, {"éÉěĚëË", "e"}, {"íÍîÎ", "i"}, {"łŁ", "l"}, {"óÓôÔöÖ", "o"}, {"řŘ", "r"}, {"šŠ", "s"}, {"úÚüÜ", "u"}, {"žŽ", "z"}};
+        char highest = 0;
+        for (String[] mapping : letters) {
+            for (char c : mapping[0].toCharArray()) {
+                highest = (char) Math.max(highest, c);
+            }
+        }
+        char[] table = new char[highest + 1];
+        for (int c = 0; c < table.length; c++) {
+            table[c] = (char) c;
+        }
+        for (String[] mapping : letters) {
+            for (char c : mapping[0].toCharArray()) {
+                table[c] = mapping[1].charAt(0);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Creates table of character classes for ASCII characters.
+     */
+    private static byte[] createCharClasses() {
+        byte[] classes = new byte[128];
+        for (char c : FORBIDDEN_SIGNS_FOR_WORDS.toCharArray()) {
+            classes[c] |= CHAR_FORBIDDEN;
+        }
+        for (char c : "-_+0123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray()) {
+            classes[c] |= CHAR_CATEGORY;
+        }
+        return classes;
     }
 
     /* STATIC EXCEPTION CLASSES */
@@ -608,9 +825,7 @@ public List<Integer> getScores(){
         if (this.categories != null) {
             obj.put("categories", fromArrayToJsonArray(this.categories));
         }
-        if (this.scores != null) {
-            obj.put("scores", this.scores.stream().map(String::valueOf).collect(Collectors.joining(",")));
-        }
+        obj.put("scores", this.scores.asList().stream().map(String::valueOf).collect(Collectors.joining(",")));
         if (this.wordType != null) {
             obj.put("wordType", this.wordType);
         }
@@ -700,20 +915,89 @@ public List<Integer> getScores(){
     }
 
     /**
-     * Finds an ID that does not yet exist in the list. It then sets the ID and returns it.
+     * Reads next JSON object from {@link JsonReader} and creates word from it. It works the same way as
+     * {@link #getWordFromJson(JSONObject)}, except that it never builds a JSON tree - values are
+     * consumed token by token. Unknown or null values are skipped.
+     *
+     * @throws UnsuccessfulWordCreationException if word or both description and translatedWord are missing
+     * @throws IllegalStateException if next value is not an object or values are of unexpected types
      */
-    public String setIdAndAvoidDuplication(List<Word> words) {
-        String time = String.valueOf(System.currentTimeMillis());
-        String base = time;
-        //+ String.format("%03d", idCounter++));
-        long x = words.stream().map(Word::getId).filter(id -> id != null && id.startsWith(base)).mapToLong(Long::parseLong).sorted().reduce(Long.parseLong(base) * 1000, (a, b) -> {
-            if (a == b) {
-                return a + 1;
+    public static Word getWordFromJson(JsonReader reader) throws IOException, UnsuccessfulWordCreationException {
+        String[] mainWords = null, translatedWords = null, synonyms = null, translatedSynonyms = null, categories = null;
+        String id = null, description = null, demand = null, translatedDemand = null, note = null, translatedNote = null;
+        String scores = null, wordType = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            final String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                continue;
             }
-            return a;
-        });
-        setId("" + x);
-        return "" + x;
+            switch (name) {
+                case "word": mainWords = readJsonStringArray(reader); break;
+                case "id": id = reader.nextString(); break;
+                case "description": description = reader.nextString(); break;
+                case "translatedWord": translatedWords = readJsonStringArray(reader); break;
+                case "synonyms": synonyms = readJsonStringArray(reader); break;
+                case "translatedSynonyms": translatedSynonyms = readJsonStringArray(reader); break;
+                case "demand": demand = reader.nextString(); break;
+                case "translatedDemand": translatedDemand = reader.nextString(); break;
+                case "note": note = reader.nextString(); break;
+                case "translatedNote": translatedNote = reader.nextString(); break;
+                case "categories": categories = readJsonStringArray(reader); break;
+                case "scores": scores = reader.nextString(); break;
+                case "wordType": wordType = reader.nextString(); break;
+                default: reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (mainWords == null) {
+            throw new UnsuccessfulWordCreationException("Crucial data (main word) is missing in JSON string");
+        }
+        if (description == null && translatedWords == null) {
+            throw new UnsuccessfulWordCreationException("Crucial data (description and translated word) is missing in JSON string");
+        }
+        Word word = new Word(mainWords);
+        word.setId(id);
+        word.setDescription(description);
+        if (translatedWords != null) {
+            word.setTranslatedWord(translatedWords);
+        }
+        if (synonyms != null) {
+            word.setSynonym(synonyms);
+        }
+        if (translatedSynonyms != null) {
+            word.setTranslatedSynonym(translatedSynonyms);
+        }
+        word.setDemand(demand);
+        word.setTranslatedDemand(translatedDemand);
+        word.setNote(note);
+        word.setTranslatedNote(translatedNote);
+        if (categories != null) {
+            word.setCategories(categories);
+        }
+        if (scores != null) {
+            word.setScores(scores);
+        }
+        if (wordType != null) {
+            word.setWordType(WordType.valueOf(wordType.toUpperCase()));
+        }
+        return word;
+    }
+
+    /**
+     * Reads JSON array of strings from {@link JsonReader}.
+     */
+    private static String[] readJsonStringArray(JsonReader reader) throws IOException {
+        List<String> list = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            list.add(reader.nextString());
+        }
+        reader.endArray();
+        return list.toArray(new String[0]);
     }
 
     /* COMPARATORS AND COLLATORS */
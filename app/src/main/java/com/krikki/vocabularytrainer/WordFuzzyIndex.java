@@ -0,0 +1,215 @@
+package com.krikki.vocabularytrainer;
+
+import com.krikki.vocabularytrainer.util.StringManipulator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * BK-tree of words and translated words, used to find words that are similar to a query, for example
+ * when it contains a typo. Words are compared in lower case and simplified form (see
+ * {@link StringManipulator#simplify(String)}), using Levenshtein distance (number of inserted, removed
+ * or replaced letters).
+ * <p>
+ * Every node of the tree has children at different distances from it. Because Levenshtein distance
+ * satisfies triangle inequality, words within distance k of query can only be under children at
+ * distances between d-k and d+k, where d is the distance between query and node. This way only a
+ * small part of the tree has to be compared with the query.
+ * <p>
+ * Removed words are only removed from their node, nodes stay in the tree until there are too many
+ * of them and the tree is built again. Index is not thread safe; {@link WordRepository} keeps it up
+ * to date and synchronizes access.
+ */
+final class WordFuzzyIndex {
+    private Node root;
+    private int size = 0; // number of words stored in nodes
+    private int nodes = 0;
+
+    WordFuzzyIndex(List<Word> words) {
+        words.forEach(this::add);
+    }
+
+    void add(Word word) {
+        for (String key : keys(word)) {
+            insert(key, word);
+        }
+    }
+
+    void remove(Word word) {
+        for (String key : keys(word)) {
+            Node node = find(key);
+            if (node != null && node.words.remove(word)) {
+                size--;
+            }
+        }
+        if (nodes > 2 * size + 16) {
+            rebuild();
+        }
+    }
+
+    void update(Word oldWord, Word newWord) {
+        remove(oldWord);
+        add(newWord);
+    }
+
+    /**
+     * Returns words with any word or translated word within given distance of query. Closer words are first.
+     */
+    List<Word> search(String query, int maxDistance) {
+        List<List<Word>> wordsByDistance = new ArrayList<>();
+        for (int i = 0; i <= maxDistance; i++) {
+            wordsByDistance.add(new ArrayList<>());
+        }
+        List<Node> toVisit = new ArrayList<>();
+        if (root != null) {
+            toVisit.add(root);
+        }
+        final String key = key(query);
+        while (!toVisit.isEmpty()) {
+            final Node node = toVisit.remove(toVisit.size() - 1);
+            final int distance = distance(key, node.key);
+            if (distance <= maxDistance) {
+                wordsByDistance.get(distance).addAll(node.words);
+            }
+            final int to = Math.min(distance + maxDistance, node.children.length - 1);
+            for (int i = Math.max(distance - maxDistance, 1); i <= to; i++) {
+                if (node.children[i] != null) {
+                    toVisit.add(node.children[i]);
+                }
+            }
+        }
+
+        Set<Word> found = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Word> results = new ArrayList<>();
+        for (List<Word> words : wordsByDistance) {
+            for (Word word : words) {
+                if (found.add(word)) {
+                    results.add(word);
+                }
+            }
+        }
+        return results;
+    }
+
+    private void insert(String key, Word word) {
+        size++;
+        if (root == null) {
+            root = new Node(key);
+            root.words.add(word);
+            nodes++;
+            return;
+        }
+        Node node = root;
+        while (true) {
+            final int distance = distance(key, node.key);
+            if (distance == 0) {
+                node.words.add(word);
+                return;
+            }
+            if (distance >= node.children.length) {
+                node.children = Arrays.copyOf(node.children, distance + 1);
+            }
+            if (node.children[distance] == null) {
+                Node child = new Node(key);
+                child.words.add(word);
+                node.children[distance] = child;
+                nodes++;
+                return;
+            }
+            node = node.children[distance];
+        }
+    }
+
+    private Node find(String key) {
+        Node node = root;
+        while (node != null) {
+            final int distance = distance(key, node.key);
+            if (distance == 0) {
+                return node;
+            }
+            node = distance < node.children.length ? node.children[distance] : null;
+        }
+        return null;
+    }
+
+    private void rebuild() {
+        List<Node> toVisit = new ArrayList<>();
+        List<Node> all = new ArrayList<>();
+        if (root != null) {
+            toVisit.add(root);
+        }
+        while (!toVisit.isEmpty()) {
+            Node node = toVisit.remove(toVisit.size() - 1);
+            all.add(node);
+            for (Node child : node.children) {
+                if (child != null) {
+                    toVisit.add(child);
+                }
+            }
+        }
+        root = null;
+        size = 0;
+        nodes = 0;
+        for (Node node : all) {
+            for (Word word : node.words) {
+                insert(node.key, word);
+            }
+        }
+    }
+
+    private static List<String> keys(Word word) {
+        List<String> keys = new ArrayList<>();
+        for (String string : word.getWords()) {
+            keys.add(key(string));
+        }
+        if (word.hasTranslatedWords()) {
+            for (String string : word.getTranslatedWords()) {
+                keys.add(key(string));
+            }
+        }
+        return keys;
+    }
+
+    private static String key(String string) {
+        return StringManipulator.simplify(string.toLowerCase());
+    }
+
+    /**
+     * Returns Levenshtein distance between strings.
+     */
+    private static int distance(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            final char c = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                final int replace = previous[j - 1] + (c == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(replace, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private static final class Node {
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private final String key;
+        private final List<Word> words = new ArrayList<>(1);
+        private Node[] children = NO_CHILDREN; // children[d] is child at distance d from this node
+
+        private Node(String key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.krikki.vocabularytrainer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of changes made to words since the words file was last written. Instead of
+ * rewriting all words when a single one changes, one record is appended to the journal. When words
+ * are read, records are replayed on top of words from the words file.
+ * <p>
+ * Each record consists of its length, CRC32 checksum, type and data. If writing of a record was
+ * interrupted, its checksum will not match and replaying stops there.
+ * <p>
+ * All records are idempotent - a word is added or replaced, removed, or its scores are set. Replaying
+ * the same records twice gives the same list of words, so it is safe if compaction is interrupted
+ * after the words file was written, but before the journal was removed.
+ */
+final class WordJournal {
+    // word is added, or replaced if word with same ID already exists
+    private static final byte RECORD_ADD = 1;
+    // word with same ID is replaced, or added if it does not exist
+    private static final byte RECORD_UPDATE = 2;
+    // word with given ID is removed
+    private static final byte RECORD_DELETE = 3;
+    // scores of word with given ID are set
+    private static final byte RECORD_SCORES = 4;
+
+    private static final int RECORD_HEADER_LENGTH = 8; // length and checksum
+
+    private final File file;
+
+    WordJournal(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Returns length of journal file in bytes (0 if it does not exist).
+     */
+    long length() {
+        return file.length();
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    void appendAdd(Word word) throws IOException {
+        append(RECORD_ADD, out -> BinaryWordFormat.writeWord(out, word, null));
+    }
+
+    void appendUpdate(Word word) throws IOException {
+        append(RECORD_UPDATE, out -> BinaryWordFormat.writeWord(out, word, null));
+    }
+
+    void appendDelete(String id) throws IOException {
+        append(RECORD_DELETE, out -> BinaryWordFormat.writeString(out, id));
+    }
+
+    /**
+     * Appends all scores of the word (not only the last one), so that replaying stays idempotent.
+     */
+    void appendScores(String id, List<Integer> scores) throws IOException {
+        append(RECORD_SCORES, out -> {
+            BinaryWordFormat.writeString(out, id);
+            BinaryWordFormat.writeScores(out, scores);
+        });
+    }
+
+    /**
+     * Deletes the journal.
+     */
+    void delete() {
+        file.delete();
+    }
+
+    /**
+     * Truncates journal to given length. It is used to remove a record, which was not completely written.
+     */
+    void truncate(long length) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(length);
+        }
+    }
+
+    /**
+     * Reads the whole journal into memory (an empty buffer if it does not exist). Unlike
+     * {@link #replay(List)}, which maps the file, the copy stays valid if journal is truncated later,
+     * so it can be replayed without holding a lock.
+     */
+    ByteBuffer read() throws IOException {
+        if (!file.exists()) {
+            return ByteBuffer.allocate(0);
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            byte[] bytes = new byte[(int) raf.length()];
+            raf.readFully(bytes);
+            return ByteBuffer.wrap(bytes);
+        }
+    }
+
+    /**
+     * Replays records from the journal on the list of words. Words that are added are appended to
+     * the end of the list, replaced words keep their position.
+     *
+     * @param words list of words read from words file; it is modified
+     * @return number of bytes that were replayed; if it is smaller than {@link #length()}, the rest
+     * of the journal is not valid
+     */
+    long replay(List<Word> words) throws IOException, Word.UnsuccessfulWordCreationException {
+        if (!file.exists()) {
+            return 0;
+        }
+        ByteBuffer buffer;
+        try (FileInputStream fis = new FileInputStream(file);
+             FileChannel channel = fis.getChannel()) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        return replay(words, buffer);
+    }
+
+    /**
+     * Replays records from given contents of journal (see {@link #read()}) on the list of words,
+     * in the same way as {@link #replay(List)}.
+     *
+     * @return number of bytes that were replayed
+     */
+    static long replay(List<Word> words, ByteBuffer buffer) throws IOException, Word.UnsuccessfulWordCreationException {
+        Map<String, Integer> indices = new HashMap<>(words.size() * 2);
+        for (int i = 0; i < words.size(); i++) {
+            indices.put(words.get(i).getId(), i);
+        }
+        boolean anyRemoved = false;
+        CRC32 crc = new CRC32();
+        int replayedLength = 0;
+        while (buffer.remaining() >= RECORD_HEADER_LENGTH) {
+            final int length = buffer.getInt();
+            final int checksum = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                break;
+            }
+            ByteBuffer record = buffer.slice();
+            record.limit(length);
+            crc.reset();
+            crc.update(record.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            buffer.position(buffer.position() + length);
+
+            try {
+                final byte type = record.get();
+                if (type == RECORD_ADD || type == RECORD_UPDATE) {
+                    Word word = BinaryWordFormat.readWord(record, null);
+                    Integer index = indices.get(word.getId());
+                    if (index == null) {
+                        indices.put(word.getId(), words.size());
+                        words.add(word);
+                    } else {
+                        words.set(index, word);
+                    }
+                } else if (type == RECORD_DELETE) {
+                    Integer index = indices.remove(BinaryWordFormat.readString(record));
+                    if (index != null) {
+                        words.set(index, null);
+                        anyRemoved = true;
+                    }
+                } else if (type == RECORD_SCORES) {
+                    Integer index = indices.get(BinaryWordFormat.readString(record));
+                    if (index != null) {
+                        words.get(index).setScores(BinaryWordFormat.readScores(record));
+                    }
+                } else {
+                    throw new IOException("Unknown journal record type: " + type);
+                }
+            } catch (BufferUnderflowException e) {
+                throw new IOException("Journal record is corrupted");
+            }
+            replayedLength = buffer.position();
+        }
+        if (anyRemoved) {
+            words.removeIf(word -> word == null);
+        }
+        return replayedLength;
+    }
+
+    private void append(byte type, RecordWriter recordWriter) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(bytes);
+        data.writeInt(0); // length and checksum are filled in below
+        data.writeInt(0);
+        data.writeByte(type);
+        recordWriter.write(data);
+        data.flush();
+        byte[] record = bytes.toByteArray();
+
+        final int length = record.length - RECORD_HEADER_LENGTH;
+        CRC32 crc = new CRC32();
+        crc.update(record, RECORD_HEADER_LENGTH, length);
+        ByteBuffer.wrap(record).putInt(length).putInt((int) crc.getValue());
+
+        // record is written with a single call, so it is either complete or its checksum fails
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(record);
+        }
+    }
+
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,113 @@
+package com.krikki.vocabularytrainer;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import org.json.JSONException;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads words from a stream in the same JSON format as {@link DataStorageManager#convertToJson(java.util.List)}
+ * creates. Words are read one at a time using a token based {@link JsonReader}, so neither the whole
+ * file as a String nor a tree of {@link org.json.JSONObject} is ever held in memory. Each word is
+ * available as soon as its JSON object has been read from the stream.
+ * <p>
+ * Typical usage:
+ * <pre>
+ * try (WordJsonStreamReader reader = new WordJsonStreamReader(inputStream)) {
+ *     while (reader.hasNext()) {
+ *         Word word = reader.next();
+ *     }
+ * }
+ * </pre>
+ * Note that IDs are not verified here. That is left to the caller (see {@link DataStorageManager}).
+ */
+public class WordJsonStreamReader implements Closeable {
+    private final JsonReader reader;
+    private boolean started = false;
+    private boolean finished = false;
+
+    public WordJsonStreamReader(InputStream inputStream) {
+        reader = new JsonReader(new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Returns true if there are more words in the stream. An empty stream contains no words.
+     * @throws JSONException if stream does not contain an object with array "words"
+     */
+    public boolean hasNext() throws IOException, JSONException {
+        if (finished) {
+            return false;
+        }
+        try {
+            if (!started) {
+                started = true;
+                if (!moveToWordsArray()) {
+                    finished = true;
+                    return false;
+                }
+            }
+            if (!reader.hasNext()) {
+                reader.endArray();
+                finished = true;
+                return false;
+            }
+            return true;
+        } catch (IllegalStateException e) {
+            throw new JSONException(e.getMessage());
+        }
+    }
+
+    /**
+     * Reads next word from the stream.
+     * @throws NoSuchElementException if there are no more words
+     * @throws JSONException if JSON object is not correctly structured
+     * @throws Word.UnsuccessfulWordCreationException if data in JSON object breaks rules of word creation
+     */
+    public Word next() throws IOException, JSONException, Word.UnsuccessfulWordCreationException {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more words in the stream");
+        }
+        try {
+            return Word.getWordFromJson(reader);
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            throw new JSONException(e.getMessage());
+        }
+    }
+
+    /**
+     * Moves reader to first element of array "words". Other values in root object are skipped.
+     * @return false if stream is empty
+     */
+    private boolean moveToWordsArray() throws IOException, JSONException {
+        try {
+            if (reader.peek() == JsonToken.END_DOCUMENT) {
+                return false;
+            }
+        } catch (EOFException e) {
+            return false;
+        }
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName().equals("words")) {
+                reader.beginArray();
+                return true;
+            }
+            reader.skipValue();
+        }
+        throw new JSONException("No value for words");
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,287 @@
+package com.krikki.vocabularytrainer;
+
+import android.content.Context;
+
+import org.json.JSONException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Process-wide store of words, shared by all activities. Words are read from storage only once,
+ * when they are first needed. After that every screen gets a snapshot of the list from memory, so
+ * switching screens does not read or parse any file.
+ * <p>
+ * All changes must go through the repository, which writes them to storage (using {@link DataStorageManager})
+ * and keeps the words in memory up to date. Since nothing else writes words file, data in memory never
+ * has to be read again. Listeners registered with {@link #addListener(OnWordsChangedListener)} are
+ * notified about every change.
+ * <p>
+ * Snapshots contain the same {@link Word} objects as the repository. Games may add scores to them,
+ * but must then call {@link #saveScores(List)}. Other changes must not be made on these objects directly.
+ */
+public class WordRepository {
+    private static WordRepository instance;
+
+    private final DataStorageManager storageManager;
+    private ArrayList<Word> words; // null until words are read from storage
+    private final Map<String, Word> wordsById = new HashMap<>();
+    // index of every word in list of words; indices from validPositions on may be outdated after a word was removed
+    private final Map<String, Integer> positionsById = new HashMap<>();
+    private int validPositions = 0;
+    private IdAllocator idAllocator;
+    private WordTextIndex textIndex; // null until text search is first used
+    private WordFuzzyIndex fuzzyIndex; // null until similar words are first searched
+    private final List<OnWordsChangedListener> listeners = new CopyOnWriteArrayList<>();
+
+    private WordRepository(Context context) {
+        storageManager = new DataStorageManager(context);
+    }
+
+    /**
+     * Returns the only instance of repository.
+     * @param context any context; repository only keeps application context
+     */
+    public static synchronized WordRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new WordRepository(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Returns a snapshot of all words. Words are read from storage, if this is the first call or
+     * previous reading failed. The list can be freely modified.
+     */
+    public synchronized List<Word> getWords() throws IOException, JSONException, Word.UnsuccessfulWordCreationException, Word.DuplicatedIdException {
+        loadIfNeeded();
+        return new ArrayList<>(words);
+    }
+
+    /**
+     * Returns word with given ID or null if it does not exist.
+     */
+    public synchronized Word getWord(String id) throws IOException, JSONException, Word.UnsuccessfulWordCreationException, Word.DuplicatedIdException {
+        loadIfNeeded();
+        return wordsById.get(id);
+    }
+
+    /**
+     * Adds a new word. If it does not have an ID yet, a unique one is set.
+     */
+    public synchronized void addWord(Word word) throws IOException, JSONException, Word.UnsuccessfulWordCreationException, Word.DuplicatedIdException {
+        loadIfNeeded();
+        if (word.getId() == null) {
+            word.setId(idAllocator.nextId());
+        } else if (wordsById.containsKey(word.getId())) {
+            throw new Word.DuplicatedIdException("Word with ID " + word.getId() + " already exists");
+        } else {
+            idAllocator.register(word.getId());
+        }
+        storageManager.addWordToStorage(word);
+        addToList(word);
+        wordsById.put(word.getId(), word);
+        if (textIndex != null) {
+            textIndex.add(word);
+        }
+        if (fuzzyIndex != null) {
+            fuzzyIndex.add(word);
+        }
+        listeners.forEach(listener -> listener.onWordAdded(word));
+    }
+
+    /**
+     * Replaces word that has the same ID as given word. If such word does not exist, it is added.
+     */
+    public synchronized void updateWord(Word word) throws IOException, JSONException, Word.UnsuccessfulWordCreationException, Word.DuplicatedIdException {
+        loadIfNeeded();
+        storageManager.updateWordInStorage(word);
+        idAllocator.register(word.getId());
+        Word oldWord = wordsById.put(word.getId(), word);
+        if (oldWord == null) {
+            addToList(word);
+            if (textIndex != null) {
+                textIndex.add(word);
+            }
+            if (fuzzyIndex != null) {
+                fuzzyIndex.add(word);
+            }
+            listeners.forEach(listener -> listener.onWordAdded(word));
+        } else {
+            words.set(positionOf(word.getId()), word);
+            if (textIndex != null) {
+                textIndex.update(oldWord, word);
+            }
+            if (fuzzyIndex != null) {
+                fuzzyIndex.update(oldWord, word);
+            }
+            listeners.forEach(listener -> listener.onWordUpdated(oldWord, word));
+        }
+    }
+
+    /**
+     * Removes word with given ID.
+     * @return false if word was not found
+     */
+    public synchronized boolean removeWord(String id) throws IOException, JSONException, Word.UnsuccessfulWordCreationException, Word.DuplicatedIdException {
+        loadIfNeeded();
+        Word word = wordsById.get(id);
+        if (word == null) {
+            return false;
+        }
+        storageManager.removeWordFromStorage(id);
+        wordsById.remove(id);
+        // following words move one place back, so their positions are updated when they are next needed
+        final int position = positionOf(id);
+        words.remove(position);
+        positionsById.remove(id);
+        validPositions = Math.min(validPositions, position);
+        if (textIndex != null) {
+            textIndex.remove(word);
+        }
+        if (fuzzyIndex != null) {
+            fuzzyIndex.remove(word);
+        }
+        listeners.forEach(listener -> listener.onWordRemoved(word));
+        return true;
+    }
+
+    /**
+     * Returns words that contain every word of query in any of their texts, including descriptions,
+     * notes, demands and categories. Query words may be beginnings of words. See {@link WordTextIndex}.
+     */
+    public synchronized List<Word> findWordsByText(String query) throws IOException, JSONException, Word.UnsuccessfulWordCreationException, Word.DuplicatedIdException {
+        loadIfNeeded();
+        if (textIndex == null) {
+            textIndex = new WordTextIndex(words);
+        }
+        return textIndex.search(query);
+    }
+
+    /**
+     * Returns words with any word or translated word that differs from query in at most maxDistance
+     * letters (inserted, removed or replaced). Case and localized letters are ignored. Closer words are first.
+     * See {@link WordFuzzyIndex}.
+     */
+    public synchronized List<Word> findSimilarWords(String query, int maxDistance) throws IOException, JSONException, Word.UnsuccessfulWordCreationException, Word.DuplicatedIdException {
+        loadIfNeeded();
+        if (fuzzyIndex == null) {
+            fuzzyIndex = new WordFuzzyIndex(words);
+        }
+        return fuzzyIndex.search(query, maxDistance);
+    }
+
+    /**
+     * Saves scores of given words, which were added to them using {@link Word#addNewScore(int)}.
+     * Scores are written to storage in the background.
+     */
+    public synchronized void saveScores(List<Word> changedWords) {
+        storageManager.updateScoresInStorage(changedWords);
+        listeners.forEach(listener -> listener.onScoresChanged(changedWords));
+    }
+
+    /**
+     * Replaces all words (for example when they are imported) and writes them to storage.
+     */
+    public synchronized void replaceAllWords(List<Word> newWords) throws IOException, Word.UnsuccessfulWordCreationException {
+        storageManager.writeWordsToStorage(newWords);
+        setWords(new ArrayList<>(newWords));
+        listeners.forEach(OnWordsChangedListener::onWordsReplaced);
+    }
+
+    /**
+     * Writes scores that are still waiting to be written and waits until they are written.
+     */
+    public void flushAndWait() throws IOException {
+        storageManager.flushAndWait();
+    }
+
+    public void addListener(OnWordsChangedListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(OnWordsChangedListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void loadIfNeeded() throws IOException, JSONException, Word.UnsuccessfulWordCreationException, Word.DuplicatedIdException {
+        if (words != null) {
+            return;
+        }
+        setWords(storageManager.readWordsFromStorage());
+    }
+
+    private void setWords(ArrayList<Word> list) {
+        wordsById.clear();
+        positionsById.clear();
+        for (int i = 0; i < list.size(); i++) {
+            wordsById.put(list.get(i).getId(), list.get(i));
+            positionsById.put(list.get(i).getId(), i);
+        }
+        validPositions = list.size();
+        idAllocator = new IdAllocator(list);
+        textIndex = null;
+        fuzzyIndex = null;
+        words = list;
+    }
+
+    private void addToList(Word word) {
+        positionsById.put(word.getId(), words.size());
+        if (validPositions == words.size()) {
+            validPositions++;
+        }
+        words.add(word);
+    }
+
+    /**
+     * Returns index of word with given ID in list of words. Positions that are outdated are updated
+     * first, which only happens after a word was removed.
+     */
+    private int positionOf(String id) {
+        int position = positionsById.get(id);
+        if (position >= validPositions) {
+            for (int i = validPositions; i < words.size(); i++) {
+                positionsById.put(words.get(i).getId(), i);
+            }
+            validPositions = words.size();
+            position = positionsById.get(id);
+        }
+        return position;
+    }
+
+    /**
+     * Listener for changes in repository. By default every change calls {@link #onWordsChanged()},
+     * but more specific methods can be overridden instead. Methods are called on the thread that
+     * made the change.
+     */
+    public interface OnWordsChangedListener {
+        /**
+         * Called after any change of words.
+         */
+        void onWordsChanged();
+
+        default void onWordAdded(Word word) {
+            onWordsChanged();
+        }
+
+        default void onWordUpdated(Word oldWord, Word newWord) {
+            onWordsChanged();
+        }
+
+        default void onWordRemoved(Word word) {
+            onWordsChanged();
+        }
+
+        default void onScoresChanged(List<Word> changedWords) {
+            onWordsChanged();
+        }
+
+        default void onWordsReplaced() {
+            onWordsChanged();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.krikki.vocabularytrainer;
+
+import com.krikki.vocabularytrainer.util.StringManipulator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Inverted index of all text in words: words, synonyms, translations, description, demands, notes
+ * and categories. Text is split to tokens (sequences of letters and digits), which are stored in lower
+ * case and simplified form (see {@link StringManipulator#simplify(String)}). For every token the index
+ * keeps a sorted posting list of words that contain it.
+ * <p>
+ * Query is split to terms in the same way. A word is found if it contains, for every term, a token
+ * that begins with that term. Finding words takes time proportional to the number of postings of
+ * matching tokens, not to the size of dictionary.
+ * <p>
+ * An updated word keeps its document ID. Removed words leave unused IDs behind, so once they make up
+ * more than half of all IDs, the index is built again from the remaining words.
+ * <p>
+ * Index is not thread safe; {@link WordRepository} keeps it up to date and synchronizes access.
+ */
+final class WordTextIndex {
+    private static final int MIN_REMOVED_FOR_REBUILD = 16;
+
+    private final TreeMap<String, int[]> postings = new TreeMap<>(); // first element of array is number of postings
+    private final Map<Word, Integer> documentIds = new IdentityHashMap<>();
+    private Word[] documents = new Word[16]; // removed words leave null behind
+    private String[][] documentTokens = new String[16][];
+    private int nextDocumentId = 0;
+    private int removedDocuments = 0;
+
+    WordTextIndex(List<Word> words) {
+        words.forEach(this::add);
+    }
+
+    void add(Word word) {
+        final int id = nextDocumentId++;
+        if (id == documents.length) {
+            documents = Arrays.copyOf(documents, id * 2);
+            documentTokens = Arrays.copyOf(documentTokens, id * 2);
+        }
+        setDocument(id, word);
+    }
+
+    void remove(Word word) {
+        Integer id = documentIds.remove(word);
+        if (id == null) {
+            return;
+        }
+        removePostings(id);
+        documents[id] = null;
+        documentTokens[id] = null;
+        removedDocuments++;
+        if (removedDocuments >= MIN_REMOVED_FOR_REBUILD && removedDocuments * 2 > nextDocumentId) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Replaces old word with new one, which gets the same document ID.
+     */
+    void update(Word oldWord, Word newWord) {
+        Integer id = documentIds.remove(oldWord);
+        if (id == null) {
+            add(newWord);
+            return;
+        }
+        removePostings(id);
+        setDocument(id, newWord);
+    }
+
+    private void setDocument(int id, Word word) {
+        String[] tokens = tokenize(word);
+        documents[id] = word;
+        documentTokens[id] = tokens;
+        documentIds.put(word, id);
+        for (String token : tokens) {
+            int[] list = postings.get(token);
+            if (list == null) {
+                list = new int[3];
+            } else if (list[0] + 1 == list.length) {
+                list = Arrays.copyOf(list, list.length * 2);
+            }
+            // new words have the highest ID and are appended, updated words are inserted to keep list sorted
+            final int index = -Arrays.binarySearch(list, 1, list[0] + 1, id) - 1;
+            System.arraycopy(list, index, list, index + 1, list[0] + 1 - index);
+            list[index] = id;
+            list[0]++;
+            postings.put(token, list);
+        }
+    }
+
+    private void removePostings(int id) {
+        for (String token : documentTokens[id]) {
+            int[] list = postings.get(token);
+            final int index = Arrays.binarySearch(list, 1, list[0] + 1, id);
+            System.arraycopy(list, index + 1, list, index, list[0] - index);
+            if (--list[0] == 0) {
+                postings.remove(token);
+            }
+        }
+    }
+
+    /**
+     * Builds index again from remaining words, which get new IDs in the same order.
+     */
+    private void rebuild() {
+        List<Word> words = new ArrayList<>(documentIds.size());
+        for (int id = 0; id < nextDocumentId; id++) {
+            if (documents[id] != null) {
+                words.add(documents[id]);
+            }
+        }
+        postings.clear();
+        documentIds.clear();
+        documents = new Word[Math.max(16, words.size() * 2)];
+        documentTokens = new String[documents.length][];
+        nextDocumentId = 0;
+        removedDocuments = 0;
+        words.forEach(this::add);
+    }
+
+    /**
+     * Returns words that contain a token beginning with every term of query. If query contains no
+     * terms, no words are found.
+     */
+    List<Word> search(String query) {
+        String[] terms = split(query);
+        List<Word> results = new ArrayList<>();
+        if (terms.length == 0) {
+            return results;
+        }
+        BitSet found = null;
+        for (String term : terms) {
+            BitSet matches = new BitSet(nextDocumentId);
+            // all tokens that begin with term are between term and term followed by the highest character
+            for (int[] list : postings.subMap(term, term + Character.MAX_VALUE).values()) {
+                for (int i = 1; i <= list[0]; i++) {
+                    matches.set(list[i]);
+                }
+            }
+            if (found == null) {
+                found = matches;
+            } else {
+                found.and(matches);
+            }
+            if (found.isEmpty()) {
+                return results;
+            }
+        }
+        for (int id = found.nextSetBit(0); id >= 0; id = found.nextSetBit(id + 1)) {
+            results.add(documents[id]);
+        }
+        return results;
+    }
+
+    private static String[] tokenize(Word word) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String text : new String[]{word.getWordsJoined(), word.getSynonymsJoined(),
+                word.getTranslatedWordsJoined(), word.getTranslatedSynonymsJoined(), word.getDescription(),
+                word.getDemand(), word.getTranslatedDemand(), word.getNote(), word.getTranslatedNote(),
+                word.getCategoriesJoined()}) {
+            tokens.addAll(Arrays.asList(split(text)));
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    /**
+     * Splits text to lower case and simplified sequences of letters and digits.
+     */
+    private static String[] split(String text) {
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            if (i < text.length() && Character.isLetterOrDigit(text.charAt(i))) {
+                if (start == -1) {
+                    start = i;
+                }
+            } else if (start != -1) {
+                tokens.add(StringManipulator.simplify(text.substring(start, i).toLowerCase()));
+                start = -1;
+            }
+        }
+        return tokens.toArray(new String[0]);
+    }
+}
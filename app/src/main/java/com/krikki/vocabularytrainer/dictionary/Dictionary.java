@@ -16,16 +16,14 @@ import com.google.android.material.navigation.NavigationView;
 import com.krikki.vocabularytrainer.DataStorageManager;
 import com.krikki.vocabularytrainer.R;
 import com.krikki.vocabularytrainer.Word;
+import com.krikki.vocabularytrainer.WordRepository;
 import com.krikki.vocabularytrainer.util.SelectableData;
 import com.krikki.vocabularytrainer.wordadder.WordAdder;
 
 import org.json.JSONException;
 
-import java.io.BufferedReader;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -52,6 +50,7 @@ public class Dictionary extends AppCompatActivity {
     private static final int IMPORT_RESULT_CODE = 44157;
 
     private DataStorageManager storageManager;
+    private WordRepository repository;
     private RecyclerView recyclerView;
     private WordListAdapter adapter;
     private final ArrayList<SelectableData<Word>> words = new ArrayList<>();
@@ -61,6 +60,39 @@ public class Dictionary extends AppCompatActivity {
     private Toolbar toolbar;
     private Context context = this;
     private boolean refreshAfterResume = false;
+    private boolean redrawAfterResume = false;
+    // words are changed in other activities, so they are only displayed when this one is resumed
+    // added, edited and removed words are updated in the list right away, other changes need a full refresh
+    private final WordRepository.OnWordsChangedListener wordsChangedListener = new WordRepository.OnWordsChangedListener() {
+        @Override
+        public void onWordsChanged() {
+            refreshAfterResume = true;
+        }
+
+        @Override
+        public void onWordAdded(Word word) {
+            adapter.addWord(word);
+            redrawAfterResume = true;
+        }
+
+        @Override
+        public void onWordUpdated(Word oldWord, Word newWord) {
+            adapter.replaceWord(oldWord, newWord);
+            redrawAfterResume = true;
+        }
+
+        @Override
+        public void onWordRemoved(Word word) {
+            adapter.removeWord(word);
+            redrawAfterResume = true;
+        }
+
+        @Override
+        public void onScoresChanged(List<Word> changedWords) {
+            // scores are changed in the same word objects
+            redrawAfterResume = true;
+        }
+    };
     private SearchView searchView;
 
     @Override
@@ -68,7 +100,9 @@ public class Dictionary extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.layout_dictionary);
         storageManager = new DataStorageManager(context);
+        repository = WordRepository.getInstance(context);
         readWordsFromStorage();
+        repository.addListener(wordsChangedListener);
 
         recyclerView = findViewById(R.id.recyclerView);
         adapter = new WordListAdapter(this, words, this::startWordAdderActivity, pos -> recyclerView.smoothScrollToPosition(pos));
@@ -105,6 +139,7 @@ public class Dictionary extends AppCompatActivity {
                     words.sort((a, b) -> Word.comparatorByScore().compare(a.getData(), b.getData()));
                     break;
             }
+            adapter.onWordsSorted();
             final Menu menu = toolbar.getMenu();
             SearchView searchView = (SearchView) menu.findItem(R.id.action_search).getActionView();
             adapter.getFilter().filter(searchView.getQuery());
@@ -172,7 +207,7 @@ public class Dictionary extends AppCompatActivity {
             Intent sendIntent = new Intent();
             sendIntent.setAction(Intent.ACTION_SEND);
             sendIntent.putExtra(Intent.EXTRA_TITLE, "words.json");
-            String fileContents = storageManager.readFromStorage(DataStorageManager.WORDS_FILE);
+            String fileContents = readWordsForExport();
             fileContents = fileContents.replace("{\"word\":", "\n{\"word\":");
             sendIntent.putExtra(Intent.EXTRA_TEXT, fileContents);
             sendIntent.setType("text/plain");
@@ -184,6 +219,22 @@ public class Dictionary extends AppCompatActivity {
         }
     }
 
+    /**
+     * Returns words from storage in a JSON format. If they cannot be read, for example because data
+     * file is corrupted, JSON file used by older versions of the app is returned instead, so that
+     * what can be saved is saved.
+     */
+    private String readWordsForExport() throws IOException {
+        try {
+            return storageManager.convertToJson(repository.getWords());
+        } catch (JSONException | Word.UnsuccessfulWordCreationException | Word.DuplicatedIdException | IOException e) {
+            if (getFileStreamPath(DataStorageManager.WORDS_FILE).exists()) {
+                return storageManager.readFromStorage(DataStorageManager.WORDS_FILE);
+            }
+            throw new IOException(e.getMessage());
+        }
+    }
+
     private void importDataFile(){
         Intent intent = new Intent(Intent.ACTION_GET_CONTENT);
         intent.setType("*/*");
@@ -201,7 +252,7 @@ public class Dictionary extends AppCompatActivity {
             try {
                 // IMPORT WORDS
                 final Uri returnUri = data.getData();
-                final String importedData = readTextFromUri(returnUri);
+                final InputStream importedData = Objects.requireNonNull(getContentResolver().openInputStream(returnUri));
 
                 toolbar.removeAllViews();
                 toolbar.setTitle("Preview");
@@ -224,11 +275,12 @@ public class Dictionary extends AppCompatActivity {
                 toolbar.addView(buttonRevert);
 
                 final ArrayList<Word> list = storageManager.convertToListOfWords(importedData);
-                // you must convert text to words and then back to String, because IDs may not exist in initial test
-                final String dataToSave = storageManager.convertToJson(list);
+                // IDs are added to words that did not have them, but words must still be verified before previewing them
+                DataStorageManager.verifyWordsBeforeWriting(list);
 
                 words.clear();
                 words.addAll(list.stream().map(SelectableData::new).collect(Collectors.toList()));
+                adapter.onWordsReset();
                 adapter.notifyDataSetChanged();
 
                 Toast.makeText(Dictionary.this, "You are previewing the imported file, " +
@@ -237,8 +289,8 @@ public class Dictionary extends AppCompatActivity {
                 buttonSave.setOnClickListener(view -> {
                     toolbar.removeView(buttonSave);
                     try {
-                        storageManager.writeToStorage(DataStorageManager.WORDS_FILE, dataToSave);
-                    } catch (IOException e) {
+                        repository.replaceAllWords(list);
+                    } catch (IOException | Word.UnsuccessfulWordCreationException e) {
                         Toast.makeText(Dictionary.this, "Exception when writing file to storage", Toast.LENGTH_LONG).show();
                     }
                     Toast.makeText(Dictionary.this, "Import successful", Toast.LENGTH_LONG).show();
@@ -253,27 +305,10 @@ public class Dictionary extends AppCompatActivity {
         }
     }
 
-    private String readTextFromUri(Uri uri) throws IOException {
-        StringBuilder stringBuilder = new StringBuilder();
-        try (InputStream inputStream =
-                     getContentResolver().openInputStream(uri);
-             BufferedReader reader = new BufferedReader(
-                     new InputStreamReader(Objects.requireNonNull(inputStream)))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                stringBuilder.append(line);
-            }
-        }
-        return stringBuilder.toString();
-    }
-
     private void readWordsFromStorage(){
         List<SelectableData<Word>> newWords;
         try {
-            String wordsRawText = storageManager.readFromStorage(DataStorageManager.WORDS_FILE);
-            newWords = storageManager.convertToListOfWords(wordsRawText).stream().map(SelectableData::new).collect(Collectors.toList());
-        }catch (FileNotFoundException e1){
-            newWords = new ArrayList<>();
+            newWords = repository.getWords().stream().map(SelectableData::new).collect(Collectors.toList());
         }catch (IOException | JSONException e){
             Toast.makeText(this, "Exception thrown when reading: "+e.getMessage(), Toast.LENGTH_LONG).show();
             newWords = new ArrayList<>();
@@ -316,7 +351,6 @@ public class Dictionary extends AppCompatActivity {
      * @param wordId ID of word being edited; null if it is being added
      */
     private void startWordAdderActivity(String wordId){
-        refreshAfterResume = true;
         Intent intent = new Intent(this, WordAdder.class);
         String[] existingCategories = words.stream()
                 .filter(data -> data.getData().getCategories() != null)
@@ -340,9 +374,19 @@ public class Dictionary extends AppCompatActivity {
 
         if(refreshAfterResume) {
             readWordsFromStorage();
-            // TODO could be done more efficiently
-            adapter.notifyDataSetChanged();
+            adapter.onWordsReset();
+        }
+        if(refreshAfterResume || redrawAfterResume) {
+            // filter again, so that changed words are shown only if they match the query
+            adapter.getFilter().filter(searchView != null ? searchView.getQuery() : "");
             refreshAfterResume = false;
+            redrawAfterResume = false;
         }
     }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        repository.removeListener(wordsChangedListener);
+    }
 }
\ No newline at end of file
@@ -14,26 +14,45 @@ import android.widget.Toast;
 
 import com.krikki.vocabularytrainer.R;
 import com.krikki.vocabularytrainer.Word;
+import com.krikki.vocabularytrainer.WordRepository;
 import com.krikki.vocabularytrainer.util.SelectableData;
 import com.krikki.vocabularytrainer.util.TriConsumer;
 
+import org.json.JSONException;
+
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import androidx.core.content.ContextCompat;
 import androidx.recyclerview.widget.RecyclerView;
 
-import static com.krikki.vocabularytrainer.util.StringManipulator.isSubstringSimplifiedFrom;
+import static com.krikki.vocabularytrainer.util.StringManipulator.anyStartsWithSimplified;
+import static com.krikki.vocabularytrainer.util.StringManipulator.isSimplified;
 
 /**
  * This class controls main recycler view in dictionary.
  */
 public class WordListAdapter extends RecyclerView.Adapter<WordListAdapter.ViewHolder> implements Filterable {
+    private static final int MIN_QUERY_LENGTH_FOR_SIMILAR = 3; // shorter queries are similar to too many words
+
     private List<SelectableData<Word>> words; // words is the full size list, which is used to refill filteredList
     private List<SelectableData<Word>> filteredWords; // filtered words is list of words that is being displayed
+    // copy of words that filter reads on its own thread, while words are changed on UI thread
+    private volatile List<SelectableData<Word>> wordsSnapshot;
+    // index of every word in list of words; indices from validPositions on may be outdated after a word was removed
+    private final Map<Word, Integer> positions = new IdentityHashMap<>();
+    private int validPositions = 0;
+    private final WordSearchIndex searchIndex = new WordSearchIndex();
+    private final WordRepository repository;
+    private final WordFilter filter = new WordFilter();
+    private volatile int wordsVersion = 0; // changed with list of words, so that filter knows its previous results are outdated
     private Context context;
     private Drawable infoIcon, exclamationMarkIcon, translationIcon, descriptionIcon, categoryIcon;
     private Consumer<String> longClickConsumer;
@@ -49,6 +68,8 @@ public class WordListAdapter extends RecyclerView.Adapter<WordListAdapter.ViewHo
     public WordListAdapter(Context context, ArrayList<SelectableData<Word>> words, Consumer<String> longClickConsumer, Consumer<Integer> scrollToConsumer) {
         this.words = words;
         this.filteredWords = words;
+        onWordsReset();
+        this.repository = WordRepository.getInstance(context);
         this.context = context;
         this.longClickConsumer = longClickConsumer != null ? longClickConsumer : s -> {};
         this.scrollToConsumer = scrollToConsumer != null ? scrollToConsumer : s -> {};
@@ -78,6 +99,100 @@ public class WordListAdapter extends RecyclerView.Adapter<WordListAdapter.ViewHo
         }
 
     }
+
+    /**
+     * Must be called after list of words was refilled, so that search index is rebuilt.
+     */
+    public void onWordsReset() {
+        searchIndex.rebuild(words);
+        onWordsMoved();
+    }
+
+    /**
+     * Must be called after list of words was sorted, so that search results are in the same order.
+     */
+    public void onWordsSorted() {
+        searchIndex.reorder(words);
+        onWordsMoved();
+    }
+
+    /**
+     * Adds word to the end of list.
+     */
+    public void addWord(Word word) {
+        SelectableData<Word> item = new SelectableData<>(word);
+        positions.put(word, words.size());
+        if (validPositions == words.size()) {
+            validPositions++;
+        }
+        words.add(item);
+        searchIndex.add(item);
+        onWordsChanged();
+    }
+
+    /**
+     * Replaces word with a new version of it at the same position in list.
+     */
+    public void replaceWord(Word oldWord, Word newWord) {
+        int position = indexOf(oldWord);
+        if (position == -1) {
+            addWord(newWord);
+            return;
+        }
+        SelectableData<Word> item = new SelectableData<>(newWord);
+        positions.remove(oldWord);
+        positions.put(newWord, position);
+        searchIndex.replace(words.set(position, item), item);
+        onWordsChanged();
+    }
+
+    /**
+     * Removes word from list.
+     */
+    public void removeWord(Word word) {
+        int position = indexOf(word);
+        if (position != -1) {
+            // following words move one place back, so their positions are updated when they are next needed
+            positions.remove(word);
+            validPositions = Math.min(validPositions, position);
+            searchIndex.remove(words.remove(position));
+            onWordsChanged();
+        }
+    }
+
+    /**
+     * Returns index of word in list of words or -1 if it is not in list. Positions that are outdated
+     * are updated first, which only happens after a word was removed.
+     */
+    private int indexOf(Word word) {
+        Integer position = positions.get(word);
+        if (position == null) {
+            return -1;
+        }
+        if (position >= validPositions) {
+            for (int i = validPositions; i < words.size(); i++) {
+                positions.put(words.get(i).getData(), i);
+            }
+            validPositions = words.size();
+            position = positions.get(word);
+        }
+        return position;
+    }
+
+    private void onWordsMoved() {
+        positions.clear();
+        for (int i = 0; i < words.size(); i++) {
+            positions.put(words.get(i).getData(), i);
+        }
+        validPositions = words.size();
+        onWordsChanged();
+    }
+
+    private void onWordsChanged() {
+        wordsSnapshot = Collections.unmodifiableList(new ArrayList<>(words));
+        wordsVersion++;
+    }
+
     @Override
     public ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
         LayoutInflater layoutInflater = LayoutInflater.from(parent.getContext());
@@ -120,46 +235,98 @@ public class WordListAdapter extends RecyclerView.Adapter<WordListAdapter.ViewHo
 
     @Override
     public Filter getFilter() {
-        return new Filter() {
-            @Override
-            protected FilterResults performFiltering(CharSequence charSequence) {
-                String query = charSequence.toString();
-                words.forEach(word -> word.setSelected(false)); // collapse items when filtering
-                if (query.length() == 0) {
-                    filteredWords = words;
-                } else {
-                    ArrayList<SelectableData<Word>> tempFilteredList = new ArrayList<>();
-                    for (SelectableData<Word> selectableData : words) {
-                        final Word word = selectableData.getData();
-
-                        // check if any word begins with query (allow simplification of characters like čšž to csz)
-                        if(Arrays.stream(word.getWords())
-                                .filter(w -> w.length() >= query.length())
-                                .anyMatch(w -> isSubstringSimplifiedFrom(w, query))){
-                            tempFilteredList.add(selectableData);
-                            continue;
-                        }
-                        // same thing with translated words
-                        if(word.hasTranslatedWords() && Arrays.stream(word.getTranslatedWords())
-                                .filter(w -> w.length() >= query.length())
-                                .anyMatch(w -> isSubstringSimplifiedFrom(w, query))){
-                            tempFilteredList.add(selectableData);
-                        }
-                    }
-                    filteredWords = tempFilteredList;
+        return filter;
+    }
+
+    /**
+     * Filter that finds words beginning with query and words that contain all words of query anywhere in
+     * their text (see {@link WordRepository#findWordsByText(String)}). The same instance is always used, so that
+     * filtering requests are queued one after another and requests that became stale while waiting
+     * are dropped, instead of running all of them at the same time.
+     * <p>
+     * When user types another letter, the new query extends the previous one. Every word that matches
+     * the new query also matches the previous one, so only previous results are checked.
+     * Otherwise words are searched in {@link WordSearchIndex}.
+     * <p>
+     * Filtering only reads a copy of words, which is replaced whenever words change, and items are
+     * collapsed when results are published on UI thread.
+     * <p>
+     * If nothing is found, words similar to query are shown instead (see {@link WordRepository#findSimilarWords(String, int)}).
+     */
+    private class WordFilter extends Filter {
+        // used only on filtering thread
+        private String previousQuery = "";
+        private List<SelectableData<Word>> previousResults;
+        private int previousVersion;
+
+        @Override
+        protected FilterResults performFiltering(CharSequence charSequence) {
+            String query = charSequence.toString();
+            final int version = wordsVersion;
+            List<SelectableData<Word>> results;
+            if (query.length() == 0) {
+                results = wordsSnapshot;
+            } else if (previousResults != null && version == previousVersion
+                    && !previousQuery.isEmpty() && query.startsWith(previousQuery)) {
+                results = narrow(previousResults, query, findWordsByText(query));
+            } else {
+                // find words and translated words that begin with query (allow simplification of characters like čšž to csz)
+                results = searchIndex.search(query, findWordsByText(query));
+            }
+            previousQuery = query;
+            previousResults = results;
+            previousVersion = version;
+
+            if (results.isEmpty() && query.length() >= MIN_QUERY_LENGTH_FOR_SIMILAR) {
+                // did you mean: show words similar to query, in case it contains a typo
+                results = searchIndex.itemsOf(findSimilarWords(query, query.length() < 6 ? 1 : 2));
+            }
+
+            FilterResults filterResults = new FilterResults();
+            filterResults.values = results;
+            return filterResults;
+        }
+
+        @Override
+        protected void publishResults(CharSequence charSequence, FilterResults filterResults) {
+            words.forEach(word -> word.setSelected(false)); // collapse items when filtering
+            filteredWords = (List<SelectableData<Word>>) filterResults.values;
+            notifyDataSetChanged();
+        }
+
+        private List<SelectableData<Word>> narrow(List<SelectableData<Word>> previousResults, String query, List<Word> foundByText) {
+            final boolean isQuerySimplified = isSimplified(query);
+            Set<Word> foundByTextSet = Collections.newSetFromMap(new IdentityHashMap<>());
+            foundByTextSet.addAll(foundByText);
+            List<SelectableData<Word>> results = new ArrayList<>();
+            for (SelectableData<Word> selectableData : previousResults) {
+                final Word word = selectableData.getData();
+                if (foundByTextSet.contains(word)
+                        || anyStartsWithSimplified(word.getWords(), word.getSimplifiedWords(), query, isQuerySimplified)
+                        || word.hasTranslatedWords() && anyStartsWithSimplified(word.getTranslatedWords(),
+                        word.getSimplifiedTranslatedWords(), query, isQuerySimplified)) {
+                    results.add(selectableData);
                 }
+            }
+            return results;
+        }
 
-                FilterResults filterResults = new FilterResults();
-                filterResults.values = filteredWords;
-                return filterResults;
+        private List<Word> findWordsByText(String query) {
+            try {
+                return repository.findWordsByText(query);
+            } catch (IOException | JSONException | Word.UnsuccessfulWordCreationException | Word.DuplicatedIdException e) {
+                // dictionary already reports that words cannot be read, search only by words in list
+                return new ArrayList<>();
             }
+        }
 
-            @Override
-            protected void publishResults(CharSequence charSequence, FilterResults filterResults) {
-                filteredWords = (List<SelectableData<Word>>) filterResults.values;
-                notifyDataSetChanged();
+        private List<Word> findSimilarWords(String query, int maxDistance) {
+            try {
+                return repository.findSimilarWords(query, maxDistance);
+            } catch (IOException | JSONException | Word.UnsuccessfulWordCreationException | Word.DuplicatedIdException e) {
+                return new ArrayList<>();
             }
-        };
+        }
     }
 
     public class ViewHolder extends RecyclerView.ViewHolder {
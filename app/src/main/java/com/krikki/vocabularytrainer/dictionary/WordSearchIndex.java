@@ -0,0 +1,281 @@
+package com.krikki.vocabularytrainer.dictionary;
+
+import com.krikki.vocabularytrainer.Word;
+import com.krikki.vocabularytrainer.util.SelectableData;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static com.krikki.vocabularytrainer.util.StringManipulator.anyStartsWithSimplified;
+import static com.krikki.vocabularytrainer.util.StringManipulator.isSimplified;
+import static com.krikki.vocabularytrainer.util.StringManipulator.simplify;
+
+/**
+ * Prefix tree of words and translated words in dictionary, used for searching. Words are stored in
+ * simplified form (see {@link com.krikki.vocabularytrainer.util.StringManipulator#simplify(String)}),
+ * so that query cevap finds čevapčiči. Finding words that begin with query takes time proportional
+ * to the length of query and number of found words, not to the size of dictionary.
+ * <p>
+ * Index also remembers the position of each item in displayed list, so that results are returned in
+ * the same order as items in list. Index must be informed about every change of list: items are added
+ * to the end using {@link #add(SelectableData)}, and when list is sorted or refilled,
+ * {@link #rebuild(List)} or {@link #reorder(List)} must be called.
+ * <p>
+ * Methods are synchronized, because searching is done on a background thread by {@link android.widget.Filter}.
+ */
+final class WordSearchIndex {
+    private final Node root = new Node();
+    private final Map<SelectableData<Word>, Entry> entries = new IdentityHashMap<>();
+    private final Map<Word, SelectableData<Word>> itemsByWord = new IdentityHashMap<>();
+    private long nextPosition = 0;
+
+    /**
+     * Clears the index and adds all items in given order.
+     */
+    synchronized void rebuild(List<SelectableData<Word>> items) {
+        root.clear();
+        entries.clear();
+        itemsByWord.clear();
+        nextPosition = 0;
+        items.forEach(this::add);
+    }
+
+    /**
+     * Updates positions of items after list was sorted. Items themselves must not change.
+     */
+    synchronized void reorder(List<SelectableData<Word>> items) {
+        nextPosition = 0;
+        for (SelectableData<Word> item : items) {
+            Entry entry = entries.get(item);
+            if (entry != null) {
+                entry.position = nextPosition++;
+            }
+        }
+    }
+
+    /**
+     * Adds item, which was added to the end of list.
+     */
+    synchronized void add(SelectableData<Word> item) {
+        addAt(item, nextPosition++);
+    }
+
+    /**
+     * Replaces item with a new one at the same position in list.
+     */
+    synchronized void replace(SelectableData<Word> oldItem, SelectableData<Word> newItem) {
+        Entry entry = entries.get(oldItem);
+        if (entry == null) {
+            add(newItem);
+            return;
+        }
+        remove(oldItem);
+        addAt(newItem, entry.position);
+    }
+
+    /**
+     * Removes item from index.
+     */
+    synchronized void remove(SelectableData<Word> item) {
+        Entry entry = entries.remove(item);
+        if (entry == null) {
+            return;
+        }
+        itemsByWord.remove(item.getData());
+        for (String key : entry.keys) {
+            root.remove(key, 0, item);
+        }
+    }
+
+    /**
+     * Returns items with any word or translated word that begins with query, in the same order as in list.
+     * Query may be simplified, but localized letters in query only match the same letters.
+     * @param alsoFound words that were found in some other way (for example by other parts of their text),
+     *                  whose items are returned as well; words that are not in index are ignored
+     */
+    synchronized List<SelectableData<Word>> search(String query, List<Word> alsoFound) {
+        Map<SelectableData<Word>, Entry> found = new IdentityHashMap<>();
+        Node node = root.find(simplify(query));
+        if (node != null) {
+            node.collect(item -> found.put(item, entries.get(item)));
+        }
+        Set<Word> alsoFoundSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Word word : alsoFound) {
+            SelectableData<Word> item = itemsByWord.get(word);
+            if (item != null) {
+                found.put(item, entries.get(item));
+                alsoFoundSet.add(word);
+            }
+        }
+        final boolean isQuerySimplified = isSimplified(query);
+
+        List<Map.Entry<SelectableData<Word>, Entry>> sorted = new ArrayList<>(found.entrySet());
+        sorted.sort((a, b) -> Long.compare(a.getValue().position, b.getValue().position));
+        List<SelectableData<Word>> results = new ArrayList<>(sorted.size());
+        for (Map.Entry<SelectableData<Word>, Entry> result : sorted) {
+            final Word word = result.getKey().getData();
+            // simplified words only tell that the item may match, query with localized letters has to be checked again
+            if (isQuerySimplified || alsoFoundSet.contains(word)
+                    || anyStartsWithSimplified(word.getWords(), word.getSimplifiedWords(), query, false)
+                    || word.hasTranslatedWords() && anyStartsWithSimplified(word.getTranslatedWords(),
+                    word.getSimplifiedTranslatedWords(), query, false)) {
+                results.add(result.getKey());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Returns items of given words in the same order. Words that are not in index are ignored.
+     */
+    synchronized List<SelectableData<Word>> itemsOf(List<Word> words) {
+        List<SelectableData<Word>> items = new ArrayList<>(words.size());
+        for (Word word : words) {
+            SelectableData<Word> item = itemsByWord.get(word);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    private void addAt(SelectableData<Word> item, long position) {
+        final Word word = item.getData();
+        String[] keys = word.getSimplifiedWords();
+        if (word.hasTranslatedWords()) {
+            String[] translated = word.getSimplifiedTranslatedWords();
+            keys = Arrays.copyOf(keys, keys.length + translated.length);
+            System.arraycopy(translated, 0, keys, keys.length - translated.length, translated.length);
+        }
+        for (String key : keys) {
+            root.insert(key, 0, item);
+        }
+        entries.put(item, new Entry(keys, position));
+        itemsByWord.put(word, item);
+    }
+
+    private static final class Entry {
+        private final String[] keys; // simplified strings under which item is stored
+        private long position;
+
+        private Entry(String[] keys, long position) {
+            this.keys = keys;
+            this.position = position;
+        }
+    }
+
+    /**
+     * Node of prefix tree. Children are kept in arrays sorted by character.
+     */
+    private static final class Node {
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private List<SelectableData<Word>> items; // items with a word that ends in this node, null if none
+
+        private void clear() {
+            keys = NO_KEYS;
+            children = NO_CHILDREN;
+            items = null;
+        }
+
+        private void insert(String key, int depth, SelectableData<Word> item) {
+            if (depth == key.length()) {
+                if (items == null) {
+                    items = new ArrayList<>(1);
+                }
+                items.add(item);
+                return;
+            }
+            final char c = key.charAt(depth);
+            int i = Arrays.binarySearch(keys, c);
+            if (i < 0) {
+                i = -i - 1;
+                keys = insertAt(keys, i, c);
+                Node[] newChildren = new Node[children.length + 1];
+                System.arraycopy(children, 0, newChildren, 0, i);
+                System.arraycopy(children, i, newChildren, i + 1, children.length - i);
+                newChildren[i] = new Node();
+                children = newChildren;
+            }
+            children[i].insert(key, depth + 1, item);
+        }
+
+        /**
+         * Removes item stored under key and nodes that are left empty.
+         * @return true if this node is left empty
+         */
+        private boolean remove(String key, int depth, SelectableData<Word> item) {
+            if (depth == key.length()) {
+                if (items != null) {
+                    for (int j = 0; j < items.size(); j++) {
+                        if (items.get(j) == item) {
+                            items.remove(j);
+                            break;
+                        }
+                    }
+                    if (items.isEmpty()) {
+                        items = null;
+                    }
+                }
+            } else {
+                final int i = Arrays.binarySearch(keys, key.charAt(depth));
+                if (i >= 0 && children[i].remove(key, depth + 1, item)) {
+                    keys = removeAt(keys, i);
+                    Node[] newChildren = new Node[children.length - 1];
+                    System.arraycopy(children, 0, newChildren, 0, i);
+                    System.arraycopy(children, i + 1, newChildren, i, newChildren.length - i);
+                    children = newChildren;
+                }
+            }
+            return items == null && keys.length == 0;
+        }
+
+        /**
+         * Returns node reached by given key or null if no word begins with it.
+         */
+        private Node find(String key) {
+            Node node = this;
+            for (int depth = 0; depth < key.length() && node != null; depth++) {
+                final int i = Arrays.binarySearch(node.keys, key.charAt(depth));
+                node = i >= 0 ? node.children[i] : null;
+            }
+            return node;
+        }
+
+        /**
+         * Passes all items stored in this node and its descendants to consumer.
+         */
+        private void collect(Consumer<SelectableData<Word>> consumer) {
+            if (items != null) {
+                items.forEach(consumer);
+            }
+            for (Node child : children) {
+                child.collect(consumer);
+            }
+        }
+
+        private static char[] insertAt(char[] array, int index, char c) {
+            char[] result = new char[array.length + 1];
+            System.arraycopy(array, 0, result, 0, index);
+            result[index] = c;
+            System.arraycopy(array, index, result, index + 1, array.length - index);
+            return result;
+        }
+
+        private static char[] removeAt(char[] array, int index) {
+            char[] result = new char[array.length - 1];
+            System.arraycopy(array, 0, result, 0, index);
+            System.arraycopy(array, index + 1, result, index, result.length - index);
+            return result;
+        }
+    }
+}
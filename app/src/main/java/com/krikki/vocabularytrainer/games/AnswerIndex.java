@@ -0,0 +1,155 @@
+package com.krikki.vocabularytrainer.games;
+
+import com.krikki.vocabularytrainer.Word;
+import com.krikki.vocabularytrainer.WordRepository;
+
+import org.json.JSONException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.krikki.vocabularytrainer.util.StringManipulator.isStringSimplifiedFrom;
+import static com.krikki.vocabularytrainer.util.StringManipulator.simplify;
+
+/**
+ * Finds words for which given answer would be correct. Answers of all words for given game type
+ * (for example all translated words) are put into a map by their simplified form (see
+ * {@link com.krikki.vocabularytrainer.util.StringManipulator#simplify(String)}), so a lookup only
+ * checks the words with the same simplified answer, instead of all words.
+ * <p>
+ * There is one index for each game type. Index is created from words of the first game and
+ * registered as a listener in {@link WordRepository}, which keeps it up to date when words are changed.
+ */
+public class AnswerIndex implements WordRepository.OnWordsChangedListener {
+    private static final Map<CommonGameGenerator.GameType, AnswerIndex> instances = new EnumMap<>(CommonGameGenerator.GameType.class);
+
+    private final Map<String, List<Word>> wordsByAnswer = new HashMap<>();
+    private final CommonGameGenerator.GameType answerType;
+    private final WordRepository repository;
+    private boolean isBuilt = false;
+
+    /**
+     * Creates index of answers. Use {@link #getInstance(WordRepository, CommonGameGenerator.GameType)}
+     * to get an index that is shared between games.
+     * @param repository repository that keeps index up to date, or null if index is only built from
+     *                   words given to {@link #findWords(String, List)}
+     * @param answerType field of words which is used as an answer
+     */
+    public AnswerIndex(WordRepository repository, CommonGameGenerator.GameType answerType) {
+        this.repository = repository;
+        this.answerType = answerType;
+    }
+
+    /**
+     * Returns index of answers of given game type.
+     */
+    public static synchronized AnswerIndex getInstance(WordRepository repository, CommonGameGenerator.GameType answerType) {
+        AnswerIndex index = instances.get(answerType);
+        if (index == null) {
+            index = new AnswerIndex(repository, answerType);
+            instances.put(answerType, index);
+        }
+        return index;
+    }
+
+    /**
+     * Returns all words for which given answer is correct, in the same order as in list of words
+     * (words that were added or changed after the index was built are last).
+     * Answer may be simplified, as in {@link com.krikki.vocabularytrainer.util.StringManipulator#isStringSimplifiedFrom(String, String)}.
+     * @param currentWords current words from repository, which are used to build the index when it is first used
+     */
+    public synchronized List<Word> findWords(String answer, List<Word> currentWords) {
+        if (!isBuilt) {
+            rebuild(currentWords);
+            if (repository != null) {
+                repository.addListener(this);
+            }
+        }
+        List<Word> candidates = wordsByAnswer.get(simplify(answer));
+        if (candidates == null) {
+            return Collections.emptyList();
+        }
+        List<Word> words = new ArrayList<>(candidates.size());
+        for (Word word : candidates) {
+            // simplified forms are equal, but localized letters in answer must still be the same as in word
+            for (String correctAnswer : answerType.get.apply(word)) {
+                if (isStringSimplifiedFrom(correctAnswer, answer)) {
+                    words.add(word);
+                    break;
+                }
+            }
+        }
+        return words;
+    }
+
+    @Override
+    public synchronized void onWordsChanged() {
+        try {
+            rebuild(repository.getWords());
+        } catch (IOException | JSONException | Word.UnsuccessfulWordCreationException | Word.DuplicatedIdException e) {
+            // words cannot be read now, index is built again when it is next used
+            repository.removeListener(this);
+            isBuilt = false;
+        }
+    }
+
+    @Override
+    public synchronized void onWordAdded(Word word) {
+        insert(word);
+    }
+
+    @Override
+    public synchronized void onWordUpdated(Word oldWord, Word newWord) {
+        remove(oldWord);
+        insert(newWord);
+    }
+
+    @Override
+    public synchronized void onWordRemoved(Word word) {
+        remove(word);
+    }
+
+    @Override
+    public void onScoresChanged(List<Word> changedWords) {
+        // scores are not used in index
+    }
+
+    private void rebuild(List<Word> currentWords) {
+        wordsByAnswer.clear();
+        for (Word word : currentWords) {
+            insert(word);
+        }
+        isBuilt = true;
+    }
+
+    private void insert(Word word) {
+        if (!answerType.existsInWord.test(word)) {
+            return;
+        }
+        for (String answer : answerType.get.apply(word)) {
+            List<Word> list = wordsByAnswer.computeIfAbsent(simplify(answer), key -> new ArrayList<>(1));
+            // word may have the same answer more than once
+            if (list.isEmpty() || list.get(list.size() - 1) != word) {
+                list.add(word);
+            }
+        }
+    }
+
+    private void remove(Word word) {
+        if (!answerType.existsInWord.test(word)) {
+            return;
+        }
+        for (String answer : answerType.get.apply(word)) {
+            final String key = simplify(answer);
+            List<Word> list = wordsByAnswer.get(key);
+            if (list != null && list.remove(word) && list.isEmpty()) {
+                wordsByAnswer.remove(key);
+            }
+        }
+    }
+}
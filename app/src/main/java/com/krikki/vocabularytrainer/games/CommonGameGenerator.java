@@ -3,12 +3,11 @@ package com.krikki.vocabularytrainer.games;
 import com.krikki.vocabularytrainer.Word;
 
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Arrays;
 import java.util.List;
-import java.util.ListIterator;
-import java.util.TreeSet;
+import java.util.PriorityQueue;
+import java.util.Random;
 import java.util.function.Function;
-import java.util.function.IntUnaryOperator;
 import java.util.function.Predicate;
 
 import lombok.Getter;
@@ -22,6 +21,8 @@ import lombok.Getter;
 public class CommonGameGenerator {
     @Getter
     protected List<Word> words;
+    private WordWeightIndex weightIndex; // null if words are picked from list
+    protected Random random = new Random(); // source of all random choices, so that games can be repeated with a seed
 
     /**
      * Specifies which data of word will be used as a question or answer. It also provides
@@ -73,6 +74,14 @@ public class CommonGameGenerator {
         this.words = new ArrayList<>(words);
     }
 
+    /**
+     * Sets index of weights, which is used by {@link #pickQuestions(int)}. Index must be for the same
+     * fields as are required in this game.
+     */
+    public void setWeightIndex(WordWeightIndex weightIndex) {
+        this.weightIndex = weightIndex;
+    }
+
     /**
      * Removes words from List this.words that are missing field described in parameter.
      * For example if gameType is DESCRIPTION, all words that are missing description will be removed.
@@ -87,79 +96,71 @@ public class CommonGameGenerator {
     /**
      * Returns n picked words from list. Probability to pick a word grows, when its score decreases.
      * Word score must be an int with values 0-100 or -1 which indicates undefined score (it is even more likely to be picked).
-     * Note that this method sorts the list by word score.
      *
-     * Words are picked from sorted list. Traversing list is weighted according to words score.
-     * When scores are low, weights are also low and it is easy to traverse. Weights are obtained by using mapping function
-     * on word scores. To pick n random words from list, 10 numbers are picked between 0 and total sum of weights.
-     * Whenever accumulated sum of weights (when traversing) passes randomly picked number, current word is picked.
-     * Using this algorithm it may happen that 2 numbers point to last word in the list. In that case remaining words
-     * are the ones with lowest scores in the list (that have not been picked yet).
+     * Words are picked with weighted random sampling without replacement (algorithm by Efraimidis and Spirakis).
+     * Weights are obtained by using {@link WordWeightIndex#scoreToWeight(int)} on word scores. Every word gets a random key u^(1/weight),
+     * where u is uniformly random between 0 and 1, and n words with the highest keys are picked. This is the same as
+     * picking words one by one, each time with probability proportional to its weight among words that remain.
+     * Only n words with the highest keys are kept in a heap, so picking takes O(N log n) time for N words
+     * and the list does not have to be sorted. Picked words are in the order, in which they would be picked one by one.
+     *
+     * If {@link WordWeightIndex} is set using {@link #setWeightIndex(WordWeightIndex)}, words are picked from it
+     * in the same way, but without going through all words.
      * @throws GameGeneratorException if there are fewer words in the list than should be for given parameter
      */
     public List<Word> pickQuestions(int numberOfWords) throws GameGeneratorException {
         if(numberOfWords > words.size()){
             throw new GameGeneratorException("There are fewer words in the list than should be for given parameter");
         }
-        this.words.sort(Word.comparatorByScore());
-        final IntUnaryOperator scoreToWeight = score -> {
-            int s = 110 - score;
-            if(score == -1)
-                s += 15;
-            if(score < 25)
-                s += 10;
-            if(score < 50)
-                s += 10;
-            if(score > 90)
-                s -= 5;
-            return s;
-        };
-        // generate random numbers in range 0-(sumOfAll)
-        int sumOfAll = words.stream().mapToInt(word -> scoreToWeight.applyAsInt(word.getScore())).sum();
-        ArrayList<Word> pickedWords = new ArrayList<>(numberOfWords);
-        TreeSet<Integer> weightSelectors = new TreeSet<>();
-        for (int i = 0; i < numberOfWords; i++) {
-            if(!weightSelectors.add((int)(Math.random() * sumOfAll))) {
-                i--;
-            }
+        if(numberOfWords <= 0){
+            return new ArrayList<>();
         }
-
-        // traverse the list and pick words from it
-        Iterator<Integer> weightSelectorIterator = weightSelectors.iterator();
-        ListIterator<Word> wordIterator = words.listIterator();
-        int totalAccumulatedWeight = 0;
-        while (weightSelectorIterator.hasNext() && wordIterator.hasNext()) {
-            final int nextAccumulatedWeight = weightSelectorIterator.next();
-            while (true) {
-                final Word currentWord = wordIterator.next();
-                totalAccumulatedWeight += scoreToWeight.applyAsInt(currentWord.getScore());
-                if (totalAccumulatedWeight >= nextAccumulatedWeight) {
-                    pickedWords.add(currentWord);
-                    break;
-                }
+        if(weightIndex != null){
+            List<Word> pickedWords = weightIndex.pick(numberOfWords, words, random);
+            if(pickedWords.size() < numberOfWords){
+                throw new GameGeneratorException("There are fewer words in the list than should be for given parameter");
             }
+            return pickedWords;
         }
-        // if two or more random numbers point to last word, wordIterator will be done, but randomNumberIterator wont
-        // in that case just pick first n words from words list (which were not yet picked)
-        wordIterator = words.listIterator();
-        while (weightSelectorIterator.hasNext()) {
-            weightSelectorIterator.next();
-            while (wordIterator.hasPrevious()) {
-                final Word currentWord = wordIterator.previous();
-                if (!pickedWords.contains(currentWord)) {
-                    pickedWords.add(currentWord);
-                    break;
-                }
+        // heap of picked words where the word with the lowest key is on top, so that it can be replaced
+        // keys are compared as log(u)/weight, which has the same order as u^(1/weight) but does not underflow
+        PriorityQueue<PickedWord> heap = new PriorityQueue<>(numberOfWords, (a, b) -> Double.compare(a.key, b.key));
+        for (Word word : words) {
+            final double key = Math.log(random.nextDouble()) / WordWeightIndex.scoreToWeight(word.getScore());
+            if (heap.size() < numberOfWords) {
+                heap.add(new PickedWord(word, key));
+            } else if (key > heap.peek().key) {
+                heap.poll();
+                heap.add(new PickedWord(word, key));
             }
         }
 
-        return pickedWords;
+        // words with higher keys would be picked earlier when picking one by one, so they are first
+        Word[] pickedWords = new Word[heap.size()];
+        for (int i = pickedWords.length - 1; i >= 0; i--) {
+            pickedWords[i] = heap.poll().word;
+        }
+        return new ArrayList<>(Arrays.asList(pickedWords));
+    }
+
+    private static class PickedWord {
+        private final Word word;
+        private final double key;
+
+        private PickedWord(Word word, double key) {
+            this.word = word;
+            this.key = key;
+        }
     }
 
     public static String oneOf(String... array) {
         return array[(int) (Math.random() * array.length)];
     }
 
+    public static String oneOf(Random random, String[] array) {
+        return array[random.nextInt(array.length)];
+    }
+
     public static String arrayToPrettyString(String[] array){
         return String.join(", ", array);
     }
@@ -0,0 +1,271 @@
+package com.krikki.vocabularytrainer.games;
+
+import com.krikki.vocabularytrainer.Word;
+import com.krikki.vocabularytrainer.WordRepository;
+
+import org.json.JSONException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Weights of words for picking questions (see {@link #scoreToWeight(int)}), kept in a Fenwick tree
+ * between games. Every word has a slot in the tree, which stores sums of weights of ranges of
+ * slots. Picking a word with probability proportional to its weight and changing weight of a word
+ * both take O(log n) time, so a game with k questions is generated in O(k log n) time, without
+ * going through all words.
+ * <p>
+ * There is one index for each set of fields that words in a game must have. Index is created from
+ * words of the first game and registered as a listener in {@link WordRepository}, which keeps it
+ * up to date when scores are saved or words are changed.
+ */
+public class WordWeightIndex implements WordRepository.OnWordsChangedListener {
+    private static final Map<Set<CommonGameGenerator.GameType>, WordWeightIndex> instances = new HashMap<>();
+
+    private final Set<CommonGameGenerator.GameType> requiredFields;
+    private final WordRepository repository;
+    private boolean isBuilt = false;
+    private Word[] words = new Word[0]; // word in each slot, null if slot is free
+    private int[] weights = new int[0];
+    private long[] tree = new long[1]; // Fenwick tree with 1-based indices
+    private final Map<Word, Integer> slots = new IdentityHashMap<>();
+    private final List<Integer> freeSlots = new ArrayList<>();
+
+    /**
+     * Creates index of words that contain all required fields. Use {@link #getInstance(WordRepository, CommonGameGenerator.GameType, CommonGameGenerator.GameType)}
+     * to get an index that is shared between games.
+     * @param repository repository that keeps index up to date, or null if index is only built from
+     *                   words given to {@link #pick(int, List, Random)}
+     */
+    public WordWeightIndex(WordRepository repository, Set<CommonGameGenerator.GameType> requiredFields) {
+        this.repository = repository;
+        this.requiredFields = requiredFields;
+    }
+
+    /**
+     * Returns index of words that contain both given fields.
+     */
+    public static synchronized WordWeightIndex getInstance(WordRepository repository,
+                                                           CommonGameGenerator.GameType questionType,
+                                                           CommonGameGenerator.GameType answerType) {
+        Set<CommonGameGenerator.GameType> requiredFields = EnumSet.of(questionType, answerType);
+        WordWeightIndex index = instances.get(requiredFields);
+        if (index == null) {
+            index = new WordWeightIndex(repository, requiredFields);
+            instances.put(requiredFields, index);
+        }
+        return index;
+    }
+
+    /**
+     * Returns weight of word with given score, which is used when picking questions. Words with lower
+     * scores have higher weights. Score must be an int with values 0-100 or -1 which indicates
+     * undefined score (its weight is even higher).
+     */
+    public static int scoreToWeight(int score) {
+        int s = 110 - score;
+        if(score == -1)
+            s += 15;
+        if(score < 25)
+            s += 10;
+        if(score < 50)
+            s += 10;
+        if(score > 90)
+            s -= 5;
+        return s;
+    }
+
+    /**
+     * Picks given number of different words. Each time a word is picked with probability proportional to
+     * its weight among words that have not been picked yet.
+     * @param currentWords current words from repository (words without required fields may be left out),
+     *                     which are used to build the index when it is first used
+     * @param random source of random numbers
+     * @return picked words or fewer, if there are not enough words in index
+     */
+    public synchronized List<Word> pick(int numberOfWords, List<Word> currentWords, Random random) {
+        if (!isBuilt) {
+            rebuild(currentWords);
+            if (repository != null) {
+                repository.addListener(this);
+            }
+        }
+        List<Word> pickedWords = new ArrayList<>(numberOfWords);
+        List<Integer> pickedSlots = new ArrayList<>(numberOfWords);
+        for (int i = 0; i < numberOfWords; i++) {
+            final long total = prefixSum(words.length);
+            if (total <= 0) {
+                break;
+            }
+            final int slot = findSlot((long) (random.nextDouble() * total));
+            pickedWords.add(words[slot]);
+            pickedSlots.add(slot);
+            // picked word is removed, until all words are picked
+            add(slot, -weights[slot]);
+        }
+        for (int slot : pickedSlots) {
+            add(slot, weights[slot]);
+        }
+        return pickedWords;
+    }
+
+    @Override
+    public synchronized void onWordsChanged() {
+        try {
+            rebuild(repository.getWords());
+        } catch (IOException | JSONException | Word.UnsuccessfulWordCreationException | Word.DuplicatedIdException e) {
+            // words cannot be read now, index is built again when it is next used
+            repository.removeListener(this);
+            isBuilt = false;
+        }
+    }
+
+    @Override
+    public synchronized void onWordAdded(Word word) {
+        insert(word);
+    }
+
+    @Override
+    public synchronized void onWordUpdated(Word oldWord, Word newWord) {
+        remove(oldWord);
+        insert(newWord);
+    }
+
+    @Override
+    public synchronized void onWordRemoved(Word word) {
+        remove(word);
+    }
+
+    @Override
+    public synchronized void onScoresChanged(List<Word> changedWords) {
+        for (Word word : changedWords) {
+            Integer slot = slots.get(word);
+            if (slot != null) {
+                final int weight = scoreToWeight(word.getScore());
+                add(slot, weight - weights[slot]);
+                weights[slot] = weight;
+            }
+        }
+    }
+
+    private void rebuild(List<Word> currentWords) {
+        slots.clear();
+        freeSlots.clear();
+        words = new Word[Math.max(16, currentWords.size())];
+        weights = new int[words.length];
+        int size = 0;
+        for (Word word : currentWords) {
+            if (hasRequiredFields(word)) {
+                words[size] = word;
+                weights[size] = scoreToWeight(word.getScore());
+                slots.put(word, size);
+                size++;
+            }
+        }
+        for (int slot = size; slot < words.length; slot++) {
+            freeSlots.add(slot);
+        }
+        buildTree();
+        isBuilt = true;
+    }
+
+    private void insert(Word word) {
+        if (!hasRequiredFields(word) || slots.containsKey(word)) {
+            return;
+        }
+        if (freeSlots.isEmpty()) {
+            // double the capacity, tree is built again in O(n)
+            final int oldLength = words.length;
+            words = Arrays.copyOf(words, oldLength * 2);
+            weights = Arrays.copyOf(weights, oldLength * 2);
+            for (int slot = oldLength; slot < words.length; slot++) {
+                freeSlots.add(slot);
+            }
+            buildTree();
+        }
+        final int slot = freeSlots.remove(freeSlots.size() - 1);
+        words[slot] = word;
+        weights[slot] = scoreToWeight(word.getScore());
+        slots.put(word, slot);
+        add(slot, weights[slot]);
+    }
+
+    private void remove(Word word) {
+        Integer slot = slots.remove(word);
+        if (slot == null) {
+            return;
+        }
+        add(slot, -weights[slot]);
+        words[slot] = null;
+        weights[slot] = 0;
+        freeSlots.add(slot);
+    }
+
+    private boolean hasRequiredFields(Word word) {
+        for (CommonGameGenerator.GameType field : requiredFields) {
+            if (!field.existsInWord.test(word)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Builds Fenwick tree from weights in O(n).
+     */
+    private void buildTree() {
+        tree = new long[weights.length + 1];
+        for (int i = 1; i <= weights.length; i++) {
+            tree[i] += weights[i - 1];
+            final int parent = i + (i & -i);
+            if (parent <= weights.length) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    /**
+     * Adds value to weight in given slot (only in tree, not in array of weights).
+     */
+    private void add(int slot, long value) {
+        for (int i = slot + 1; i < tree.length; i += i & -i) {
+            tree[i] += value;
+        }
+    }
+
+    /**
+     * Returns sum of weights in first given number of slots.
+     */
+    private long prefixSum(int count) {
+        long sum = 0;
+        for (int i = count; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the slot where sum of weights up to and including the slot first exceeds target.
+     * Target must be lower than total sum of weights.
+     */
+    private int findSlot(long target) {
+        int position = 0;
+        for (int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>= 1) {
+            final int next = position + step;
+            if (next < tree.length && tree[next] <= target) {
+                position = next;
+                target -= tree[next];
+            }
+        }
+        // sum of weights in first position slots is at most target, so slot with index position is the one
+        return position;
+    }
+}
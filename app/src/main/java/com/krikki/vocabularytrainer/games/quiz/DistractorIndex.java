@@ -0,0 +1,610 @@
+package com.krikki.vocabularytrainer.games.quiz;
+
+import com.krikki.vocabularytrainer.Word;
+import com.krikki.vocabularytrainer.WordRepository;
+import com.krikki.vocabularytrainer.games.CommonGameGenerator.GameType;
+
+import org.json.JSONException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import static com.krikki.vocabularytrainer.util.StringManipulator.simplify;
+
+/**
+ * Finds answers that look similar to the correct answer, so that they can be used as false answers
+ * in quiz. Answers are similar if they have (in order of importance) the same word type, the same
+ * first letter, similar length and the same letters at the beginning or at the end.
+ * <p>
+ * All answers (every word can have more than one) are put into buckets by word type, first letter
+ * and length. The most similar answers are in only a few buckets, so they are found without
+ * comparing the correct answer to all words and without sorting them.
+ * <p>
+ * Before these, answers that look alike (they share most pairs of neighbouring letters, like
+ * "receive" and "recieve") are used. They are found with locality-sensitive hashing: for every answer,
+ * MinHash values of its pairs of letters are computed and grouped into bands. Answers that share
+ * a band are likely to look alike, so only those are compared to the correct answer.
+ * <p>
+ * Hashing all answers takes too long to be done for every quiz, so there is one index for each pair
+ * of question and answer type. It is created from words of the first quiz and registered as a
+ * listener in {@link WordRepository}, which keeps it up to date when words are changed.
+ * <p>
+ * Hashing is done in background, so that neither the first quiz nor changes of words wait for it.
+ * Until it is done for the first time, answers are only searched in buckets. When all words are
+ * changed at once, previous answers are searched until new ones are ready.
+ * <p>
+ * The same words are often asked again, so the most recently found answers for question words are
+ * kept in a cache of limited size. When a word is changed, only answers that it could have
+ * changed are removed from cache.
+ * <p>
+ * Answers for more questions can be found at the same time, on different threads. Changes of words
+ * wait until all searches are finished.
+ */
+public class DistractorIndex implements WordRepository.OnWordsChangedListener {
+    private static final int MAX_LENGTH = 24; // longer answers are in the same bucket as answers of this length
+    private static final int BANDS = 6;
+    private static final int ROWS_IN_BAND = 2;
+    private static final long[] HASH_SEEDS = new long[BANDS * ROWS_IN_BAND];
+    // share of pairs of letters (Jaccard similarity) that answers must have in common to look alike
+    private static final double MIN_LOOK_ALIKE_SIMILARITY = 0.4;
+    private static final int CACHE_SIZE = 256;
+    private static final Map<List<GameType>, DistractorIndex> instances = new HashMap<>();
+    // indices are built one after another, on a thread that does not prepare questions
+    static final ExecutorService buildExecutor = Executors.newSingleThreadExecutor();
+
+    static {
+        long seed = 0x2545F4914F6CDD1DL;
+        for (int i = 0; i < HASH_SEEDS.length; i++) {
+            seed += 0x9E3779B97F4A7C15L;
+            HASH_SEEDS[i] = mix(seed);
+        }
+    }
+
+    private final GameType questionType;
+    private final GameType answerType;
+    private final WordRepository repository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private boolean isBuilt = false;
+    private Answers answers = new Answers(false);
+    private int builds = 0; // number of started builds, only the last one is used
+    // changes of words since words of the last build were taken, which are repeated in its answers; null if it is done
+    private List<Consumer<Answers>> changesDuringBuild;
+    // found answers by ID of question word and correct answer, the least recently used are removed first
+    private final Map<List<String>, CachedAnswers> cache = new LinkedHashMap<List<String>, CachedAnswers>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<String>, CachedAnswers> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    /**
+     * Creates index of answers of given answer type. Use {@link #getInstance(WordRepository, GameType, GameType)}
+     * to get an index that is shared between quizzes.
+     * @param repository repository that keeps index up to date, or null if index is only built from
+     *                   words given to {@link #buildIfNeeded(List)}
+     */
+    DistractorIndex(WordRepository repository, GameType questionType, GameType answerType) {
+        this.repository = repository;
+        this.questionType = questionType;
+        this.answerType = answerType;
+    }
+
+    /**
+     * Returns index of answers of given answer type in words that contain both given fields.
+     */
+    public static synchronized DistractorIndex getInstance(WordRepository repository, GameType questionType, GameType answerType) {
+        List<GameType> key = Arrays.asList(questionType, answerType);
+        DistractorIndex index = instances.get(key);
+        if (index == null) {
+            index = new DistractorIndex(repository, questionType, answerType);
+            instances.put(key, index);
+        }
+        return index;
+    }
+
+    /**
+     * Builds the index, if it has not been built yet. Answers are put into buckets right away and
+     * look-alikes are hashed in background.
+     * @param currentWords current words from repository (words without required fields may be left out)
+     */
+    void buildIfNeeded(List<Word> currentWords) {
+        lock.writeLock().lock();
+        try {
+            if (!isBuilt) {
+                cache.clear();
+                answers = new Answers(false);
+                for (Word word : currentWords) {
+                    answers.insert(word);
+                }
+                isBuilt = true;
+                if (repository != null) {
+                    repository.addListener(this);
+                }
+                startBuild(new ArrayList<>(currentWords));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Waits until all builds that were started are done. Answers that are found after that do not
+     * depend on how long building took.
+     */
+    void waitUntilBuilt() throws InterruptedException, ExecutionException {
+        // builds are done one after another, so this task runs after all of them
+        buildExecutor.submit(() -> {}).get();
+    }
+
+    @Override
+    public void onWordsChanged() {
+        List<Word> currentWords;
+        try {
+            // words are only copied here, they are put into index in background
+            currentWords = repository.getWords();
+        } catch (IOException | JSONException | Word.UnsuccessfulWordCreationException | Word.DuplicatedIdException e) {
+            currentWords = null;
+        }
+        lock.writeLock().lock();
+        try {
+            if (currentWords != null) {
+                startBuild(currentWords);
+            } else {
+                // words cannot be read now, index is built again when it is next used
+                repository.removeListener(this);
+                isBuilt = false;
+                builds++;
+                changesDuringBuild = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onWordAdded(Word word) {
+        change(answers -> answers.insert(word), word);
+    }
+
+    @Override
+    public void onWordUpdated(Word oldWord, Word newWord) {
+        change(answers -> {
+            answers.remove(oldWord);
+            answers.insert(newWord);
+        }, oldWord, newWord);
+    }
+
+    @Override
+    public void onWordRemoved(Word word) {
+        change(answers -> answers.remove(word), word);
+    }
+
+    @Override
+    public void onScoresChanged(List<Word> changedWords) {
+        // scores are not used in index
+    }
+
+    /**
+     * Returns at most given number of answers that are the most similar to correct answer. Every word
+     * appears at most once, with its answer that is the most similar. Question word and answers that
+     * are the same as correct answer are left out. Answers of the same word type that look alike are
+     * returned first. Among equally similar answers, the ones that are returned are not specified.
+     */
+    List<Answer> findSimilar(Word questionWord, String correctAnswer, int count) {
+        List<String> key = Arrays.asList(questionWord.getId(), correctAnswer);
+        lock.readLock().lock();
+        try {
+            CachedAnswers cachedAnswers;
+            // searches only read the index, but cache is changed by all of them
+            synchronized (cache) {
+                cachedAnswers = cache.get(key);
+            }
+            if (cachedAnswers == null || cachedAnswers.count != count) {
+                cachedAnswers = new CachedAnswers(questionWord, count, computeSimilar(questionWord, correctAnswer, count));
+                synchronized (cache) {
+                    cache.put(key, cachedAnswers);
+                }
+            }
+            return new ArrayList<>(cachedAnswers.answers);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Answer> computeSimilar(Word questionWord, String correctAnswer, int count) {
+        final Word.WordType wordType = questionWord.getWordType();
+        final char firstLetter = correctAnswer.charAt(0);
+        List<Answer> similar = new ArrayList<>(count);
+        Set<Word> usedWords = Collections.newSetFromMap(new IdentityHashMap<>());
+        usedWords.add(questionWord);
+
+        for (Answer answer : findLookAlikes(wordType, correctAnswer, usedWords)) {
+            if (similar.size() == count) {
+                return similar;
+            }
+            if (usedWords.add(answer.word)) {
+                similar.add(answer);
+            }
+        }
+
+        // groups of answers from the most to the least similar, by word type, first letter and length
+        for (int group = 0; group < 8 && similar.size() < count; group++) {
+            final boolean sameType = (group & 4) == 0;
+            final boolean sameLetter = (group & 2) == 0;
+            final boolean similarLength = (group & 1) == 0;
+            if (!sameType && wordType == null) {
+                // word type of question is unknown, so all answers are in groups with the same type
+                break;
+            }
+
+            // answers in group are further divided by the same letters at the beginning and at the end
+            List<List<Answer>> subgroups = new ArrayList<>(4);
+            for (int i = 0; i < 4; i++) {
+                subgroups.add(new ArrayList<>());
+            }
+            for (Map.Entry<Word.WordType, Map<Character, List<Answer>[]>> byType : answers.buckets.entrySet()) {
+                if (wordType != null && sameType != (byType.getKey() == wordType)) {
+                    continue;
+                }
+                for (Map.Entry<Character, List<Answer>[]> byLetter : byType.getValue().entrySet()) {
+                    if (sameLetter != (byLetter.getKey() == firstLetter)) {
+                        continue;
+                    }
+                    List<Answer>[] byLength = byLetter.getValue();
+                    for (int length = 1; length <= MAX_LENGTH; length++) {
+                        if (byLength[length] == null || similarLength != isLengthSimilar(length, correctAnswer.length())) {
+                            continue;
+                        }
+                        for (Answer answer : byLength[length]) {
+                            if (!usedWords.contains(answer.word) && !answer.literalAnswer.equals(correctAnswer)) {
+                                subgroups.get(subgroup(answer.literalAnswer, correctAnswer)).add(answer);
+                            }
+                        }
+                    }
+                }
+            }
+            for (List<Answer> subgroup : subgroups) {
+                for (Answer answer : subgroup) {
+                    if (similar.size() == count) {
+                        break;
+                    }
+                    // a word may have more answers in group, only the first (the most similar) one is used
+                    if (usedWords.add(answer.word)) {
+                        similar.add(answer);
+                    }
+                }
+            }
+        }
+        return similar;
+    }
+
+    /**
+     * Starts building answers with look-alikes from given words in background. Until they are built,
+     * changes of words are made in current answers and then repeated in the new ones. Must be called
+     * with write lock.
+     */
+    private void startBuild(List<Word> currentWords) {
+        final int build = ++builds;
+        changesDuringBuild = new ArrayList<>();
+        buildExecutor.execute(() -> {
+            Answers builtAnswers = new Answers(true);
+            for (Word word : currentWords) {
+                builtAnswers.insert(word);
+            }
+            lock.writeLock().lock();
+            try {
+                if (build != builds) {
+                    // words were changed again while building, so answers of the next build are used
+                    return;
+                }
+                changesDuringBuild.forEach(change -> change.accept(builtAnswers));
+                changesDuringBuild = null;
+                answers = builtAnswers;
+                cache.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Makes change of words in answers (and in answers that are being built) and removes answers
+     * that given changed words could affect from cache.
+     */
+    private void change(Consumer<Answers> change, Word... changedWords) {
+        lock.writeLock().lock();
+        try {
+            change.accept(answers);
+            if (changesDuringBuild != null) {
+                changesDuringBuild.add(change);
+            }
+            for (Word word : changedWords) {
+                removeFromCache(word);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes answers from cache, which could be different if given word was added or removed. Word
+     * can only change answers for question words of the same word type, unless they did not have
+     * enough answers of that type.
+     */
+    private void removeFromCache(Word word) {
+        Iterator<CachedAnswers> iterator = cache.values().iterator();
+        while (iterator.hasNext()) {
+            CachedAnswers cachedAnswers = iterator.next();
+            if (cachedAnswers.wordType == null || cachedAnswers.wordType == word.getWordType()
+                    || cachedAnswers.containsOtherTypes || cachedAnswers.questionWordId.equals(word.getId())) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Returns answers of given word type (any, if it is null) that look like correct answer, from the
+     * most to the least similar. Answers of used words and answers that are the same as correct
+     * answer are left out. If look-alikes are not hashed yet, none are returned.
+     */
+    private List<Answer> findLookAlikes(Word.WordType wordType, String correctAnswer, Set<Word> usedWords) {
+        if (answers.bands == null) {
+            // look-alikes are not hashed yet
+            return Collections.emptyList();
+        }
+        final int[] correctShingles = shingles(correctAnswer);
+        Set<Answer> checked = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<LookAlike> lookAlikes = new ArrayList<>();
+        for (long key : bandKeys(correctShingles)) {
+            List<Answer> band = answers.bands.get(key);
+            if (band == null) {
+                continue;
+            }
+            for (Answer answer : band) {
+                if (!checked.add(answer) || usedWords.contains(answer.word) || answer.literalAnswer.equals(correctAnswer)
+                        || (wordType != null && answer.word.getWordType() != wordType)) {
+                    continue;
+                }
+                // answers in the same band are only candidates, their similarity must still be checked
+                final double similarity = similarity(correctShingles, shingles(answer.literalAnswer));
+                if (similarity >= MIN_LOOK_ALIKE_SIMILARITY) {
+                    lookAlikes.add(new LookAlike(answer, similarity));
+                }
+            }
+        }
+        Collections.sort(lookAlikes, (a, b) -> Double.compare(b.similarity, a.similarity));
+        List<Answer> answers = new ArrayList<>(lookAlikes.size());
+        for (LookAlike lookAlike : lookAlikes) {
+            answers.add(lookAlike.answer);
+        }
+        return answers;
+    }
+
+    /**
+     * Returns sorted codes of different pairs of neighbouring letters in simplified and lower case answer.
+     * Start and end of answer count as letters, so that first and last letter are in pairs as well.
+     */
+    private static int[] shingles(String answer) {
+        final String letters = "\u0002" + simplify(answer.toLowerCase(Locale.ROOT)) + "\u0003";
+        int[] shingles = new int[letters.length() - 1];
+        for (int i = 0; i < shingles.length; i++) {
+            shingles[i] = letters.charAt(i) << 16 | letters.charAt(i + 1);
+        }
+        Arrays.sort(shingles);
+        int distinct = 0;
+        for (int i = 0; i < shingles.length; i++) {
+            if (i == 0 || shingles[i] != shingles[i - 1]) {
+                shingles[distinct++] = shingles[i];
+            }
+        }
+        return Arrays.copyOf(shingles, distinct);
+    }
+
+    /**
+     * Returns Jaccard similarity of two sorted sets of pairs of letters.
+     */
+    private static double similarity(int[] a, int[] b) {
+        int common = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] == b[j]) {
+                common++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return (double) common / (a.length + b.length - common);
+    }
+
+    /**
+     * Returns a key for each band of MinHash values of given pairs of letters. Answers with similarity s
+     * have the same value of a hash with probability s, so they share at least one band with
+     * probability 1 - (1 - s^ROWS_IN_BAND)^BANDS.
+     */
+    private static long[] bandKeys(int[] shingles) {
+        long[] keys = new long[BANDS];
+        for (int band = 0; band < BANDS; band++) {
+            long key = band;
+            for (int row = 0; row < ROWS_IN_BAND; row++) {
+                final long seed = HASH_SEEDS[band * ROWS_IN_BAND + row];
+                long minHash = Long.MAX_VALUE;
+                for (int shingle : shingles) {
+                    minHash = Math.min(minHash, mix(shingle ^ seed));
+                }
+                key = key * 0x100000001B3L + minHash;
+            }
+            keys[band] = key;
+        }
+        return keys;
+    }
+
+    /**
+     * Mixes bits of value, so that it can be used as a hash (finalizer of SplitMix64).
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+
+    /**
+     * Returns true if answer with given length has length similar to correct answer.
+     */
+    private static boolean isLengthSimilar(int length, int correctLength) {
+        if (correctLength >= 8) {
+            // long words
+            return length >= 6;
+        }
+        // short or middle words
+        final int allowedDifference = correctLength <= 5 ? 2 : 3;
+        return Math.abs(length - correctLength) <= allowedDifference;
+    }
+
+    /**
+     * Returns 0 if at least 2 of second to fourth letter are the same in both answers and at least 2
+     * of last letters as well, 1 if only letters at the beginning match, 2 if only letters at the end
+     * match, and 3 otherwise.
+     */
+    private static int subgroup(String answer, String correctAnswer) {
+        int sameAtBeginning = 0;
+        int sameAtEnd = 0;
+        for (int j = 1; j < 4 && j < answer.length() && j < correctAnswer.length(); j++) {
+            if (answer.charAt(j) == correctAnswer.charAt(j)) sameAtBeginning++;
+            if (answer.charAt(answer.length() - j) == correctAnswer.charAt(correctAnswer.length() - j)) sameAtEnd++;
+        }
+        return (sameAtBeginning >= 2 ? 0 : 2) + (sameAtEnd >= 2 ? 0 : 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Answer>[] newBucketArray() {
+        return new List[MAX_LENGTH + 1];
+    }
+
+    /**
+     * Answers of all words, in buckets and, if look-alikes are hashed, in bands.
+     */
+    private final class Answers {
+        // answers by word type (in order of declaration, answers without type last), first letter and length;
+        // buckets are searched in the same order in every run of the app, so a quiz can be repeated with a seed
+        private final Map<Word.WordType, Map<Character, List<Answer>[]>> buckets = new TreeMap<>(Comparator.nullsLast(Comparator.naturalOrder()));
+        // answers by keys of their bands of MinHash values, null if look-alikes are not hashed
+        private final Map<Long, List<Answer>> bands;
+        private final Map<Word, List<Answer>> answersOfWords = new IdentityHashMap<>();
+
+        private Answers(boolean hashLookAlikes) {
+            this.bands = hashLookAlikes ? new HashMap<>() : null;
+        }
+
+        private void insert(Word word) {
+            if (!questionType.existsInWord.test(word) || !answerType.existsInWord.test(word) || answersOfWords.containsKey(word)) {
+                return;
+            }
+            List<Answer> answers = new ArrayList<>(1);
+            for (String literalAnswer : answerType.get.apply(word)) {
+                if (literalAnswer.isEmpty()) {
+                    continue;
+                }
+                Answer answer = new Answer(word, literalAnswer);
+                answers.add(answer);
+                List<Answer>[] byLength = buckets.computeIfAbsent(word.getWordType(), type -> new TreeMap<>())
+                        .computeIfAbsent(literalAnswer.charAt(0), letter -> newBucketArray());
+                final int length = Math.min(literalAnswer.length(), MAX_LENGTH);
+                if (byLength[length] == null) {
+                    byLength[length] = new ArrayList<>();
+                }
+                byLength[length].add(answer);
+                if (bands != null) {
+                    for (long key : bandKeys(shingles(literalAnswer))) {
+                        bands.computeIfAbsent(key, k -> new ArrayList<>(1)).add(answer);
+                    }
+                }
+            }
+            answersOfWords.put(word, answers);
+        }
+
+        private void remove(Word word) {
+            List<Answer> answers = answersOfWords.remove(word);
+            if (answers == null) {
+                return;
+            }
+            for (Answer answer : answers) {
+                final String literalAnswer = answer.literalAnswer;
+                buckets.get(word.getWordType()).get(literalAnswer.charAt(0))[Math.min(literalAnswer.length(), MAX_LENGTH)].remove(answer);
+                if (bands != null) {
+                    for (long key : bandKeys(shingles(literalAnswer))) {
+                        List<Answer> band = bands.get(key);
+                        band.remove(answer);
+                        if (band.isEmpty()) {
+                            bands.remove(key);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * One of answers of a word.
+     */
+    static final class Answer {
+        final Word word;
+        final String literalAnswer;
+
+        private Answer(Word word, String literalAnswer) {
+            this.word = word;
+            this.literalAnswer = literalAnswer;
+        }
+    }
+
+    private static final class CachedAnswers {
+        private final String questionWordId;
+        private final Word.WordType wordType;
+        private final int count;
+        private final List<Answer> answers;
+        // true if answers are not only of the same word type as question, so any word could change them
+        private final boolean containsOtherTypes;
+
+        private CachedAnswers(Word questionWord, int count, List<Answer> answers) {
+            this.questionWordId = questionWord.getId();
+            this.wordType = questionWord.getWordType();
+            this.count = count;
+            this.answers = answers;
+            boolean containsOtherTypes = answers.size() < count;
+            for (Answer answer : answers) {
+                containsOtherTypes |= answer.word.getWordType() != wordType;
+            }
+            this.containsOtherTypes = containsOtherTypes;
+        }
+    }
+
+    private static final class LookAlike {
+        private final Answer answer;
+        private final double similarity;
+
+        private LookAlike(Answer answer, double similarity) {
+            this.answer = answer;
+            this.similarity = similarity;
+        }
+    }
+}
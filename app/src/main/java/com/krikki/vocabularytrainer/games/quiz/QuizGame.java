@@ -14,16 +14,19 @@ import android.widget.Button;
 import android.widget.TextView;
 import android.widget.Toast;
 
-import com.krikki.vocabularytrainer.DataStorageManager;
 import com.krikki.vocabularytrainer.R;
 import com.krikki.vocabularytrainer.Word;
+import com.krikki.vocabularytrainer.WordRepository;
+import com.krikki.vocabularytrainer.games.WordWeightIndex;
 
 import org.json.JSONException;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
@@ -41,9 +44,11 @@ public class QuizGame extends Fragment {
     private TextView question;
     private List<Button> buttonAnswers;
     private Button buttonNext;
-    private ArrayList<Word> words;
+    private List<Word> words;
     private QuizGenerator quizGenerator;
     private List<QuizGenerator.QuestionWord> mistakesList = new LinkedList<>();
+    // words are shared with repository, so scores are only added to them when quiz is finished and saved
+    private final Map<Word, Integer> newScores = new LinkedHashMap<>();
     private int score = 0;
     private boolean buttonsDisabled = false;
 
@@ -87,7 +92,7 @@ public class QuizGame extends Fragment {
                     buttonNext.setText("Done");
                 }
             }else{
-                writeWordsToStorage();
+                saveScores();
                 quizEventListener.quizFinished(score, mistakesList);
             }
         });
@@ -97,7 +102,10 @@ public class QuizGame extends Fragment {
             Intent intent = getActivity().getIntent();
             GameType questionType = GameType.valueOf(intent.getStringExtra("gameQuestionType"));
             GameType answerType = GameType.valueOf(intent.getStringExtra("gameAnswerType"));
-            quizGenerator = new QuizGenerator(words, questionType, answerType);
+            WordRepository repository = WordRepository.getInstance(getActivity());
+            quizGenerator = new QuizGenerator(words, questionType, answerType,
+                    WordWeightIndex.getInstance(repository, questionType, answerType),
+                    DistractorIndex.getInstance(repository, questionType, answerType));
             showQuestion();
         } catch (QuizGenerationException e) {
             Toast.makeText(getActivity(), e.getMessage(), Toast.LENGTH_LONG).show();
@@ -136,15 +144,15 @@ public class QuizGame extends Fragment {
                 setButtonBackgroundColor(buttonAnswers.get(buttonIndex), R.color.correctBackgroundColor);
                 score++;
                 if(questionType == GameType.DESCRIPTION || answerType == GameType.DESCRIPTION) {
-                    quizGenerator.getQuestionWord().getWord().addNewScore(NUMBER_OF_POINTS_FOR_CORRECT_PRIMARY_DESCRIPTION);
+                    newScores.put(quizGenerator.getQuestionWord().getWord(), NUMBER_OF_POINTS_FOR_CORRECT_PRIMARY_DESCRIPTION);
                 }else{
-                    quizGenerator.getQuestionWord().getWord().addNewScore(NUMBER_OF_POINTS_FOR_CORRECT_PRIMARY_TRANSLATED);
+                    newScores.put(quizGenerator.getQuestionWord().getWord(), NUMBER_OF_POINTS_FOR_CORRECT_PRIMARY_TRANSLATED);
                 }
             } else {
                 final QuizGenerator.QuestionWord questionWord = quizGenerator.getQuestionWord();
                 setButtonBackgroundColor(buttonAnswers.get(buttonIndex), R.color.incorrectBackgroundColor);
                 setButtonBackgroundColor(buttonAnswers.get(quizGenerator.getCorrectAnswerIndex()), R.color.correctBackgroundColor);
-                questionWord.getWord().addNewScore(Word.MIN_INDIVIDUAL_SCORE);
+                newScores.put(questionWord.getWord(), Word.MIN_INDIVIDUAL_SCORE);
                 mistakesList.add(questionWord);
             }
             buttonNext.setVisibility(View.VISIBLE);
@@ -170,10 +178,8 @@ public class QuizGame extends Fragment {
      * Toast error message is displayed and activity finishes.
      */
     private void readListOfWordsFromStorage(){
-        DataStorageManager storageManager = new DataStorageManager(getActivity());
         try {
-            String wordsText = storageManager.readFromStorage(DataStorageManager.WORDS_FILE);
-            words = storageManager.convertToListOfWords(wordsText);
+            words = WordRepository.getInstance(getActivity()).getWords();
         } catch (IOException | JSONException e) {
             Toast.makeText(getActivity(), "Exception thrown when reading: "+e.getMessage(), Toast.LENGTH_LONG).show();
             getActivity().finish();
@@ -183,13 +189,12 @@ public class QuizGame extends Fragment {
         }
     }
 
-    private void writeWordsToStorage(){
-        try {
-            DataStorageManager storageManager = new DataStorageManager(getActivity());
-            storageManager.writeToStorage(DataStorageManager.WORDS_FILE, storageManager.convertToJson(words));
-        } catch (IOException | JSONException | Word.UnsuccessfulWordCreationException e) {
-            e.printStackTrace();
-        }
+    /**
+     * Adds scores gained in this quiz to words and saves them.
+     */
+    private void saveScores(){
+        newScores.forEach(Word::addNewScore);
+        WordRepository.getInstance(getActivity()).saveScores(new ArrayList<>(newScores.keySet()));
     }
 
     interface QuizEventListener {
@@ -3,12 +3,18 @@ package com.krikki.vocabularytrainer.games.quiz;
 import com.krikki.vocabularytrainer.Word;
 import com.krikki.vocabularytrainer.games.CommonGameGenerator;
 import com.krikki.vocabularytrainer.games.GameGeneratorException;
+import com.krikki.vocabularytrainer.games.WordWeightIndex;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.NoSuchElementException;
-import java.util.function.ToIntBiFunction;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.stream.Collectors;
 
 import lombok.Getter;
@@ -19,13 +25,21 @@ import lombok.Setter;
  * an algorithm that prioritizes words with lower scores (and even more undefined scores).
  * When picking false answers to appear in a question, it picks words that are similar to the
  * correct one.
+ *
+ * Only the first question is prepared when generator is created. False answers for the next few
+ * questions are prepared in background while the current question is answered.
  */
 public class QuizGenerator extends CommonGameGenerator {
-    private final static int NUMBER_OF_QUESTIONS = 10;
+    final static int NUMBER_OF_QUESTIONS = 10;
+    private final static int LOOK_AHEAD = 3; // number of questions after the current one that are prepared in background
+    // questions are prepared in parallel, by at most one thread for each processor
+    final static ExecutorService questionExecutor =
+            Executors.newFixedThreadPool(Math.min(NUMBER_OF_QUESTIONS, Runtime.getRuntime().availableProcessors()));
 
     // List<Word> words is in parent class (from it only the ones with nulls at required places are removed)
     private List<QuestionWord> questions; // list of 10 questions
-    private List<List<AnswerWord>> falseAnswers; // list of 10x3 incorrect answers (correct answers are contained in questions)
+    private List<Callable<List<AnswerWord>>> falseAnswersTasks; // tasks that pick 3 incorrect answers for each question
+    private List<Future<List<AnswerWord>>> falseAnswers; // incorrect answers of questions that are prepared so far (correct answers are contained in questions)
 
     @Getter
     private GameType questionType;
@@ -41,10 +55,31 @@ public class QuizGenerator extends CommonGameGenerator {
      * @param words list of all words
      * @param questionType type of word that appears in question
      * @param answerType type of word that appears in answer
+     * @param weightIndex index of weights for given question and answer type, used for picking questions
+     * @param distractorIndex index of answers for given question and answer type, used for picking false answers
      * @throws QuizGenerationException if questionType matches answerType or there are insufficient words (less than 20)
      */
-    public QuizGenerator(ArrayList<Word> words, GameType questionType, GameType answerType) throws QuizGenerationException {
+    public QuizGenerator(List<Word> words, GameType questionType, GameType answerType,
+                         WordWeightIndex weightIndex, DistractorIndex distractorIndex) throws QuizGenerationException {
+        this(words, questionType, answerType, weightIndex, distractorIndex, new Random(), false);
+    }
+
+    /**
+     * Initiates quiz generator, which makes all random choices with given seed. With the same seed
+     * and the same words (and indices in the same state), the same quiz is generated. If distractor
+     * index is not built yet, it waits until it is, so that false answers do not depend on how
+     * long building takes.
+     * @see #QuizGenerator(List, GameType, GameType, WordWeightIndex, DistractorIndex)
+     */
+    public QuizGenerator(List<Word> words, GameType questionType, GameType answerType,
+                         WordWeightIndex weightIndex, DistractorIndex distractorIndex, long seed) throws QuizGenerationException {
+        this(words, questionType, answerType, weightIndex, distractorIndex, new Random(seed), true);
+    }
+
+    private QuizGenerator(List<Word> words, GameType questionType, GameType answerType, WordWeightIndex weightIndex,
+                          DistractorIndex distractorIndex, Random random, boolean waitForIndex) throws QuizGenerationException {
         super(words);
+        this.random = random;
 
         if (questionType == answerType) {
             throw new QuizGenerationException("Question type must not match answer type");
@@ -57,9 +92,9 @@ public class QuizGenerator extends CommonGameGenerator {
         // remove words from words list if words needed fo questions and answers do not exist
         removeWordsThatDoNotContainField(questionType);
         removeWordsThatDoNotContainField(answerType);
+        setWeightIndex(weightIndex);
 
         questions = new ArrayList<>(NUMBER_OF_QUESTIONS);
-        falseAnswers = new ArrayList<>(NUMBER_OF_QUESTIONS);
 
         try {
             questions = pickQuestions(NUMBER_OF_QUESTIONS).stream().map(QuestionWord::new).collect(Collectors.toList());
@@ -68,10 +103,17 @@ public class QuizGenerator extends CommonGameGenerator {
             throw new QuizGenerationException(e.getMessage());
         }
         questions.forEach(question -> {
-            question.setLiteralQuestion(oneOf(questionType.get.apply(question.getWord())));
-            question.setLiteralAnswer(oneOf(answerType.get.apply(question.getWord())));
+            question.setLiteralQuestion(oneOf(random, questionType.get.apply(question.getWord())));
+            question.setLiteralAnswer(oneOf(random, answerType.get.apply(question.getWord())));
         });
-        pickAnswers();
+        createFalseAnswersTasks(distractorIndex, waitForIndex);
+
+        // the first question is prepared right away, so that it can be shown without waiting
+        falseAnswers = new ArrayList<>(NUMBER_OF_QUESTIONS);
+        FutureTask<List<AnswerWord>> firstFalseAnswers = new FutureTask<>(falseAnswersTasks.get(0));
+        firstFalseAnswers.run();
+        falseAnswers.add(firstFalseAnswers);
+        prepareQuestionsAhead();
     }
 
     /**
@@ -88,9 +130,9 @@ public class QuizGenerator extends CommonGameGenerator {
      */
     public List<String> getAllAnswers(){
         List<String> answers = new ArrayList<>(4);
-        falseAnswers.get(questionNumber).forEach(falseAnswer -> answers.add(falseAnswer.literalAnswer));
+        getFalseAnswers().forEach(falseAnswer -> answers.add(falseAnswer.literalAnswer));
         if(correctAnswerIndex == -1)
-            correctAnswerIndex = (int) (Math.random() * 4);
+            correctAnswerIndex = random.nextInt(4);
         answers.add(correctAnswerIndex, questions.get(questionNumber).getLiteralAnswer());
         return answers;
     }
@@ -102,9 +144,9 @@ public class QuizGenerator extends CommonGameGenerator {
      */
     public List<String> getAnswersTranslated(){
         List<String> answers = new ArrayList<>(4);
-        falseAnswers.get(questionNumber).forEach(falseAnswer -> answers.add(arrayToPrettyString(questionType.get.apply(falseAnswer.word))));
+        getFalseAnswers().forEach(falseAnswer -> answers.add(arrayToPrettyString(questionType.get.apply(falseAnswer.word))));
         if(correctAnswerIndex == -1)
-            correctAnswerIndex = (int) (Math.random() * 4);
+            correctAnswerIndex = random.nextInt(4);
         answers.add(correctAnswerIndex, arrayToPrettyString(questionType.get.apply(questions.get(questionNumber).getWord())));
         return answers;
     }
@@ -141,6 +183,7 @@ public class QuizGenerator extends CommonGameGenerator {
         }else{
             questionNumber++;
             correctAnswerIndex = -1;
+            prepareQuestionsAhead();
         }
     }
 
@@ -153,100 +196,75 @@ public class QuizGenerator extends CommonGameGenerator {
     }
 
 
-    private void pickAnswers() {
-        List<AnswerWord> answerList = words.stream()
-                .map(AnswerWord::new).collect(Collectors.toList());
-        for (int i = 0; i < questions.size(); i++) {
-            final Word.WordType answerWordType = questions.get(i).getWord().getWordType();
-            final String correctAnswer = questions.get(i).getLiteralAnswer();
-
-            // this function compares words in various categories to decide which one looks more
-            // like the question
-            ToIntBiFunction<String, String> wordComparator = (a, b) -> {
-                // compare by first letter
-                if(a.charAt(0) == correctAnswer.charAt(0) && b.charAt(0) != correctAnswer.charAt(0)){
-                    return 1;
-                }else if(a.charAt(0) != correctAnswer.charAt(0) && b.charAt(0) == correctAnswer.charAt(0)){
-                    return -1;
-                }
-                // compare by length
-                if(correctAnswer.length() >= 8){
-                    // long words
-                    if(a.length() >= 6 && b.length() < 6){
-                        return 1;
-                    }else if(a.length() < 6 && b.length() >= 6){
-                        return -1;
-                    }
-                }else{
-                    // short or middle words
-                    int allowedDifference;
-                    if(correctAnswer.length() <= 5){
-                        allowedDifference = 2;
-                    }else{
-                        allowedDifference = 3;
-                    }
-                    if(Math.abs(a.length()-correctAnswer.length()) <= allowedDifference && Math.abs(b.length()-correctAnswer.length()) > allowedDifference){
-                        return 1;
-                    }else if(Math.abs(a.length()-correctAnswer.length()) > allowedDifference && Math.abs(b.length()-correctAnswer.length()) <= allowedDifference){
-                        return -1;
-                    }
-                }
-                int counterA = 0;
-                int counterB = 0;
-                int counterAback = 0;
-                int counterBback = 0;
-                for (int j = 1; j < 4 && j < a.length() && j < b.length() && j < correctAnswer.length(); j++) {
-                    if(a.charAt(j) == correctAnswer.charAt(j)) counterA++;
-                    if(b.charAt(j) == correctAnswer.charAt(j)) counterB++;
-                    if(a.charAt(a.length()-j) == correctAnswer.charAt(correctAnswer.length()-j)) counterAback++;
-                    if(b.charAt(b.length()-j) == correctAnswer.charAt(correctAnswer.length()-j)) counterBback++;
-                }
-                if(counterA >= 2 && counterB < 2){
-                    return 1;
-                }else if(counterA < 2 && counterB >= 2){
-                    return -1;
-                }
-                if(counterAback >= 2 && counterBback < 2){
-                    return 1;
-                }else if(counterAback < 2 && counterBback >= 2){
-                    return -1;
-                }
-                return a.compareTo(b);
-            };
-
-            answerList.forEach(answerWord ->
-                answerWord.setLiteralAnswer(Arrays.stream(answerType.get.apply(answerWord.word)).min(wordComparator::applyAsInt).get()
-            ));
-
-            answerList.sort((a, b) -> {
-                // first category: word type
-                if(answerWordType != null) {
-                    Word.WordType wordTypeA = a.word.getWordType();
-                    Word.WordType wordTypeB = b.word.getWordType();
-                    if (answerWordType.equals(wordTypeA) && !answerWordType.equals(wordTypeB)) {
-                        return 1;
-                    } else if (!answerWordType.equals(wordTypeA) && answerWordType.equals(wordTypeB)) {
-                        return -1;
-                    }
-                }
-                return wordComparator.applyAsInt(a.getLiteralAnswer(), b.getLiteralAnswer());
-            });
-
-            int answersPicked = 0;
-            List<AnswerWord> finalFalseAnswers = new ArrayList<>(3);
-            while(answersPicked < 3){
-                int limit = Math.max(answerList.size(), Math.min(Math.max(5, answerList.size() / 3), 45));
-                int randomIndex = (int) (Math.random() * limit);
-                AnswerWord answerWord = answerList.get(randomIndex);
-                if(!finalFalseAnswers.contains(answerWord) &&
-                        !answerWord.getWord().getId().equals(questions.get(i).getWord().getId()) &&
-                        !answerWord.getLiteralAnswer().equals(correctAnswer)){
-                    finalFalseAnswers.add(answerWord);
-                    answersPicked++;
-                }
+    /**
+     * Creates a task for each question, which picks 3 false answers. They are picked randomly among the
+     * words whose answers are the most similar to the correct one (see {@link DistractorIndex}).
+     */
+    private void createFalseAnswersTasks(DistractorIndex distractorIndex, boolean waitForIndex) throws QuizGenerationException {
+        // if index is not built yet, look-alikes are hashed in background and questions that are prepared
+        // before that only get false answers from buckets
+        distractorIndex.buildIfNeeded(words);
+        if (waitForIndex) {
+            try {
+                distractorIndex.waitUntilBuilt();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new QuizGenerationException("Interrupted while waiting for answers to be indexed");
+            } catch (ExecutionException e) {
+                throw new QuizGenerationException(e.getMessage());
             }
-            falseAnswers.add(finalFalseAnswers);
         }
+        // number of the most similar words from which false answers are picked
+        final int limit = Math.min(Math.max(5, words.size() / 3), 45);
+        falseAnswersTasks = new ArrayList<>(questions.size());
+        for (QuestionWord question : questions) {
+            // every question has its own random numbers, so answers do not depend on order in which tasks run
+            final long questionSeed = random.nextLong();
+            falseAnswersTasks.add(() -> pickFalseAnswers(distractorIndex, question, limit, new Random(questionSeed)));
+        }
+    }
+
+    /**
+     * Starts preparing questions in background on {@link #questionExecutor}, up to {@link #LOOK_AHEAD}
+     * questions after the current one.
+     */
+    private void prepareQuestionsAhead() {
+        final int end = Math.min(falseAnswersTasks.size(), questionNumber + 1 + LOOK_AHEAD);
+        while (falseAnswers.size() < end) {
+            falseAnswers.add(questionExecutor.submit(falseAnswersTasks.get(falseAnswers.size())));
+        }
+    }
+
+    /**
+     * Returns false answers for current question. If they are still being prepared, it waits for them.
+     */
+    private List<AnswerWord> getFalseAnswers() {
+        try {
+            return falseAnswers.get(questionNumber).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for question to be prepared", e);
+        } catch (ExecutionException e) {
+            // tasks do not throw checked exceptions
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private List<AnswerWord> pickFalseAnswers(DistractorIndex distractorIndex, QuestionWord question, int limit, Random random) {
+        List<DistractorIndex.Answer> similarAnswers = distractorIndex.findSimilar(question.getWord(), question.getLiteralAnswer(), limit);
+
+        List<AnswerWord> finalFalseAnswers = new ArrayList<>(3);
+        for (int answersPicked = 0; answersPicked < 3 && answersPicked < similarAnswers.size(); answersPicked++) {
+            // partial shuffle, so that each answer is picked at most once
+            final int randomIndex = answersPicked + random.nextInt(similarAnswers.size() - answersPicked);
+            DistractorIndex.Answer answer = similarAnswers.get(randomIndex);
+            similarAnswers.set(randomIndex, similarAnswers.get(answersPicked));
+
+            AnswerWord answerWord = new AnswerWord(answer.word);
+            answerWord.setLiteralAnswer(answer.literalAnswer);
+            finalFalseAnswers.add(answerWord);
+        }
+        return finalFalseAnswers;
     }
 
     /**
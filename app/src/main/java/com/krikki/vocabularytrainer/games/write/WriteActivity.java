@@ -3,9 +3,9 @@ package com.krikki.vocabularytrainer.games.write;
 import android.os.Bundle;
 import android.widget.Toast;
 
-import com.krikki.vocabularytrainer.DataStorageManager;
 import com.krikki.vocabularytrainer.R;
 import com.krikki.vocabularytrainer.Word;
+import com.krikki.vocabularytrainer.WordRepository;
 import com.krikki.vocabularytrainer.util.SoftInputAdjustAssist;
 
 import org.json.JSONException;
@@ -21,7 +21,6 @@ import androidx.fragment.app.FragmentTransaction;
  * Main activity for write game.
  */
 public class WriteActivity extends AppCompatActivity implements WriteGame.GameControlActivity, WriteGameResults.DataCommunicator {
-    private DataStorageManager storageManager;
     private WriteGame writeGame;
     private WriteGameResults writeGameResults;
     private List<Word> words;
@@ -35,7 +34,6 @@ public class WriteActivity extends AppCompatActivity implements WriteGame.GameCo
         setContentView(R.layout.simple_frame_layout);
         softInputAdjustAssist = new SoftInputAdjustAssist(this);
 
-        storageManager = new DataStorageManager(this);
         readWordsFromStorage();
 
         writeGame = new WriteGame();
@@ -61,8 +59,7 @@ public class WriteActivity extends AppCompatActivity implements WriteGame.GameCo
      */
     private void readWordsFromStorage(){
         try {
-            String wordsText = storageManager.readFromStorage(DataStorageManager.WORDS_FILE);
-            words = storageManager.convertToListOfWords(wordsText);
+            words = WordRepository.getInstance(this).getWords();
         } catch (IOException | JSONException e) {
             Toast.makeText(this, "Exception thrown when reading: "+e.getMessage(), Toast.LENGTH_LONG).show();
             this.finish();
@@ -15,9 +15,11 @@ import android.widget.Toast;
 
 import com.krikki.vocabularytrainer.R;
 import com.krikki.vocabularytrainer.Word;
+import com.krikki.vocabularytrainer.WordRepository;
 import com.krikki.vocabularytrainer.games.CommonGameGenerator;
 import com.krikki.vocabularytrainer.games.CommonGameGenerator.GameType;
 import com.krikki.vocabularytrainer.games.GameGeneratorException;
+import com.krikki.vocabularytrainer.games.WordWeightIndex;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -83,6 +85,7 @@ public class WriteGame extends Fragment {
         CommonGameGenerator gameGenerator = new CommonGameGenerator(words);
         gameGenerator.removeWordsThatDoNotContainField(questionType);
         gameGenerator.removeWordsThatDoNotContainField(answerType);
+        gameGenerator.setWeightIndex(WordWeightIndex.getInstance(WordRepository.getInstance(getContext()), questionType, answerType));
         try {
             questionsAndAnswers = gameGenerator.pickQuestions(NUMBER_OF_QUESTIONS).stream().map(QuestionAnswerObject::new).collect(Collectors.toList());
         } catch (GameGeneratorException e) {
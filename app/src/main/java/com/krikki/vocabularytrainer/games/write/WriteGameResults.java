@@ -14,13 +14,16 @@ import android.widget.ImageView;
 import android.widget.LinearLayout;
 import android.widget.ListView;
 import android.widget.TextView;
-import android.widget.Toast;
 
-import com.krikki.vocabularytrainer.DataStorageManager;
 import com.krikki.vocabularytrainer.R;
 import com.krikki.vocabularytrainer.Word;
+import com.krikki.vocabularytrainer.WordRepository;
+import com.krikki.vocabularytrainer.games.AnswerIndex;
 import com.krikki.vocabularytrainer.games.CommonGameGenerator;
 
+import org.json.JSONException;
+
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedList;
@@ -28,12 +31,13 @@ import java.util.List;
 
 import androidx.fragment.app.Fragment;
 
-import static com.krikki.vocabularytrainer.util.StringManipulator.isStringSimplifiedFrom;
 import static com.krikki.vocabularytrainer.util.StringManipulator.isStringSimplifiedFromWithSingleMistake;
+import static com.krikki.vocabularytrainer.util.StringManipulator.simplifiedEditDistance;
 
 /**
  * This class receives list of questions and their answers. It then verifies whether they are correct
- * and displays the results. If word written as answer is incorrect, but it exists in dictionary (under some other word),
+ * and displays the results. If word written as answer is incorrect, but it exists in dictionary (under some other word,
+ * possibly with a single mistake),
  * this will be displayed in the list with an * and on click it will open info dialog explaining what
  * that word really means. Info dialog works for every answer, but in other cases it just displays
  * one word. This class also adds scores to words and saves them.
@@ -41,6 +45,7 @@ import static com.krikki.vocabularytrainer.util.StringManipulator.isStringSimpli
 public class WriteGameResults extends Fragment {
     private final static int NUMBER_OF_POINTS_FOR_CORRECT = 10;
     private final static int NUMBER_OF_POINTS_FOR_SINGLE_MISTAKE = 9;
+    private final static int MIN_ANSWER_LENGTH_FOR_SIMILAR = 3; // shorter answers are similar to too many words
 
     private TextView congratsText, messageText, yourMistakesText;
     private Button exitButton;
@@ -84,19 +89,22 @@ public class WriteGameResults extends Fragment {
         words = dataCommunicator.obtainWords();
 
         List<WriteGame.QuestionAnswerObject> mistakesList = findMistakes(questionAnswerObjects);
-        writeWordsToStorage(); // to save updated scores
+        saveScores();
 
         // in some cases player might have mistaken one word for another
         // this array points to word for which given answer would be correct
         Word[] mistakenWords = new Word[mistakesList.size()];
+        AnswerIndex answerIndex = AnswerIndex.getInstance(WordRepository.getInstance(getContext()), answerType);
         for (int i = 0; i < mistakesList.size(); i++) {
             final String answer = mistakesList.get(i).getAnswer();
-            if(answer.contains(",")) {
+            if(answer.isEmpty() || answer.contains(",")) {
                 continue;
             }
-            mistakenWords[i] = words.stream().filter(word ->
-                answerType.existsInWord.test(word) && Arrays.stream(answerType.get.apply(word)).anyMatch(str -> isStringSimplifiedFrom(str, answer))
-            ).findAny().orElse(null);
+            List<Word> wordsWithAnswer = answerIndex.findWords(answer, words);
+            mistakenWords[i] = wordsWithAnswer.isEmpty() ? null : wordsWithAnswer.get(0);
+            if(mistakenWords[i] == null && answer.length() >= MIN_ANSWER_LENGTH_FOR_SIMILAR) {
+                mistakenWords[i] = findSimilarWord(mistakesList.get(i).getWord(), answer);
+            }
         }
 
 
@@ -156,19 +164,39 @@ public class WriteGameResults extends Fragment {
         return view;
     }
 
-    private void writeWordsToStorage() {
-        DataStorageManager storageManager = new DataStorageManager(getContext());
+    /**
+     * Saves scores, which were added in {@link #findMistakes(List)}. Only words from this game are written.
+     */
+    private void saveScores() {
+        List<Word> scoredWords = new ArrayList<>(questionAnswerObjects.size());
+        questionAnswerObjects.forEach(qa -> scoredWords.add(qa.getWord()));
+        WordRepository.getInstance(getContext()).saveScores(scoredWords);
+    }
+
+    /**
+     * Returns a word other than asked word, for which answer would be correct with a single mistake.
+     * Player might have mistaken one word for another and made a typo as well. Returns null if
+     * there is no such word.
+     */
+    private Word findSimilarWord(Word askedWord, String answer) {
         try {
-            storageManager.writeWordsToStorage(words);
-        } catch (Exception e) {
-            Toast.makeText(getContext(), "Exception thrown when writing: " + e.getMessage(), Toast.LENGTH_LONG).show();
+            // a single mistake changes at most 2 letters (swapped letters)
+            for (Word word : WordRepository.getInstance(getContext()).findSimilarWords(answer, 2)) {
+                if (word != askedWord && answerType.existsInWord.test(word) && Arrays.stream(answerType.get.apply(word))
+                        .anyMatch(str -> isStringSimplifiedFromWithSingleMistake(str, answer) < 2)) {
+                    return word;
+                }
+            }
+        } catch (IOException | JSONException | Word.UnsuccessfulWordCreationException | Word.DuplicatedIdException e) {
+            // words were already read for this game, so this does not happen
         }
+        return null;
     }
 
     /**
      * Finds mistakes in given list of questions and their answers. Every answer can contain multiple words
      * (to show off pretty much), so each word is compared to all correct answers. Word is allowed
-     * to have at most 2 mistakes, where 1 mistake is either swapped letters, missing or extra letter.
+     * to have at most 2 mistakes, where 1 mistake is either swapped letters, missing, extra or wrong letter.
      * If multiple words are in an answer, only can have a mistake.
      * This method also updates scores in {@link Word}.
      * @param questionAnswerObjects list of questions and their answers
@@ -188,13 +216,13 @@ public class WriteGameResults extends Fragment {
 
                 // check if there is a match in list of correct answers
                 for(String correctAnswer : answerType.get.apply(questionAnswerObject.getWord())){
-                    minMistakes = Math.min(minMistakes, isStringSimplifiedFromWithSingleMistake(correctAnswer, answer));
+                    minMistakes = Math.min(minMistakes, simplifiedEditDistance(correctAnswer, answer, tooManyMistakes - 1));
                     if(minMistakes == 0) break;
                 }
                 if(minMistakes != 0 && answerType.getSynonyms.apply(questionAnswerObject.getWord()) != null) {
                     // if no match was found, check also list of synonyms
                     for (String correctAnswer : answerType.getSynonyms.apply(questionAnswerObject.getWord())) {
-                        minMistakes = Math.min(minMistakes, isStringSimplifiedFromWithSingleMistake(correctAnswer, answer));
+                        minMistakes = Math.min(minMistakes, simplifiedEditDistance(correctAnswer, answer, tooManyMistakes - 1));
                         if(minMistakes == 0) break;
                     }
                 }
@@ -6,6 +6,10 @@ import static com.krikki.vocabularytrainer.Word.letterSimplified;
  * This class provides various utility methods that work on and with Strings.
  */
 public final class StringManipulator {
+    // table of bit vectors used by simplifiedEditDistance, it covers all letters that can be simplified
+    // and is kept clear between calls, so that it does not have to be allocated
+    private static final ThreadLocal<long[]> MATCHES_TABLE = ThreadLocal.withInitial(() -> new long[letterSimplified.length]);
+
     /**
      * Returns true if simplifiedString word is a simplified version of baseString or its leading substring (starting from 0).
      * String is simplified when localized letters (like in baseString) are replaced with the most similar
@@ -51,7 +55,7 @@ public final class StringManipulator {
 
     /**
      * Verifies if simplifiedString word is a simplified version of baseString, where it allows a single mistake.
-     * A mistake is a swapped letter, a missing one or an extra one. All of these count as one mistake.
+     * A mistake is a swapped letter, a missing one, an extra one or a wrong one. All of these count as one mistake.
      * This method returns 0 if strings are identical (or simplified) or 1 if a mistake was found.
      * Everything above that is 2.
      *
@@ -63,56 +67,200 @@ public final class StringManipulator {
      *
      * @param baseString       base string which needs to be evaluated
      * @param simplifiedString string which is used for evaluation
-     * @return true if simplifiedString is simplified string of baseString
+     * @return number of mistakes, where 2 means 2 or more
+     * @see #simplifiedEditDistance(String, String, int)
      */
     public static int isStringSimplifiedFromWithSingleMistake(String baseString, String simplifiedString) {
-        if(Math.abs(baseString.length() - simplifiedString.length()) > 1) {
-            return 2;
+        return simplifiedEditDistance(baseString, simplifiedString, 1);
+    }
+
+    /**
+     * Returns the number of mistakes in simplifiedString, compared to baseString, where a mistake is a
+     * swapped pair of neighbouring letters, a missing letter, an extra letter or a wrong letter
+     * (optimal string alignment distance). Letters are compared as in {@link #isStringSimplifiedFrom(String, String)},
+     * so a localized letter in baseString may be simplified in simplifiedString.
+     * <p>
+     * Distance is only computed up to maxDistance. If there are more mistakes, maxDistance + 1 is returned.
+     * When baseString has at most 64 letters, bit-parallel algorithm by Hyyrö is used, which computes
+     * a column of distances in a few operations on a long and allocates no memory.
+     *
+     * @param baseString       base string which needs to be evaluated
+     * @param simplifiedString string which is used for evaluation
+     * @param maxDistance      highest number of mistakes that is counted
+     * @return number of mistakes or maxDistance + 1 if there are more
+     */
+    public static int simplifiedEditDistance(String baseString, String simplifiedString, int maxDistance) {
+        final int m = baseString.length();
+        final int n = simplifiedString.length();
+        if (Math.abs(m - n) > maxDistance) {
+            return maxDistance + 1;
+        }
+        if (m == 0 || n == 0) {
+            return Math.max(m, n);
+        }
+        if (m > 64) {
+            return Math.min(simplifiedEditDistanceWithTable(baseString, simplifiedString), maxDistance + 1);
         }
-        int length = Math.max(baseString.length(), simplifiedString.length());
-
-        // Append character to avoid StringIndexOutOfBoundsException a little more easily
-        baseString += "**";
-        simplifiedString += "**";
-        boolean mistakeWasMade = false;
-
-        int b = 0;
-        int s = 0;
-        while(b < length && s < length){
-            if(!isCharSimplifiedFrom(baseString.charAt(b), simplifiedString.charAt(s))){
-                if(mistakeWasMade){
-                    return 2;
-                }
 
-                mistakeWasMade = true;
-                boolean both = false;
-                if(isCharSimplifiedFrom(baseString.charAt(b), simplifiedString.charAt(s+1))){
-                    s++;
-                    both = true;
-                }
-                if(isCharSimplifiedFrom(baseString.charAt(b+1), simplifiedString.charAt(s))){
-                    b++;
-                    if(both){
-                        continue;
-                    }
-                }
+        // matches[c] has bit i set if simplified letter c matches letter i of base string
+        final long[] matches = MATCHES_TABLE.get();
+        for (int i = 0; i < m; i++) {
+            final char c = baseString.charAt(i);
+            if (c < matches.length) {
+                matches[c] |= 1L << i;
+                matches[simplifyChar(c)] |= 1L << i;
+            }
+        }
+
+        final long lastBit = 1L << (m - 1);
+        long positive = -1L; // vertical positive differences between neighbouring cells in column
+        long negative = 0; // vertical negative differences
+        long previousDiagonal = 0;
+        long previousMatch = 0;
+        int distance = m;
+        for (int j = 0; j < n; j++) {
+            final char c = simplifiedString.charAt(j);
+            final long match = c < matches.length ? matches[c] : matchesOutsideTable(baseString, c);
+            final long transposition = ((~previousDiagonal & match) << 1) & previousMatch;
+            final long diagonal = (((match & positive) + positive) ^ positive) | match | negative | transposition;
+            long horizontalPositive = negative | ~(diagonal | positive);
+            long horizontalNegative = diagonal & positive;
+            if ((horizontalPositive & lastBit) != 0) {
+                distance++;
+            } else if ((horizontalNegative & lastBit) != 0) {
+                distance--;
+            }
+            // distance can decrease by at most 1 for every remaining letter
+            if (distance - (n - j - 1) > maxDistance) {
+                distance = maxDistance + 1;
+                break;
+            }
+            horizontalPositive = (horizontalPositive << 1) | 1;
+            horizontalNegative <<= 1;
+            positive = horizontalNegative | ~(diagonal | horizontalPositive);
+            negative = horizontalPositive & diagonal;
+            previousDiagonal = diagonal;
+            previousMatch = match;
+        }
+
+        for (int i = 0; i < m; i++) {
+            final char c = baseString.charAt(i);
+            if (c < matches.length) {
+                matches[c] = 0;
+                matches[simplifyChar(c)] = 0;
             }
-            b++;
-            s++;
         }
-        return mistakeWasMade ? 1 : 0;
+        return Math.min(distance, maxDistance + 1);
     }
 
-    private static boolean isCharSimplifiedFrom(char baseChar, char simplifiedChar){
-        if (baseChar != simplifiedChar) {
-            if (letterSimplified.containsKey((int)baseChar)) {
-                if (letterSimplified.get((int)baseChar) != simplifiedChar) {
-                    return false;
+    /**
+     * Returns the most similar english letter for localized letter (for example c for č). Other
+     * characters are returned unchanged.
+     */
+    public static char simplifyChar(char c) {
+        return c < letterSimplified.length ? letterSimplified[c] : c;
+    }
+
+    /**
+     * Replaces all localized letters in string with the most similar english letters (see
+     * {@link #simplifyChar(char)}). If there are no such letters, the same string is returned.
+     */
+    public static String simplify(String string) {
+        for (int i = 0; i < string.length(); i++) {
+            final char c = string.charAt(i);
+            if (simplifyChar(c) != c) {
+                char[] chars = string.toCharArray();
+                for (int j = i; j < chars.length; j++) {
+                    chars[j] = simplifyChar(chars[j]);
                 }
-            } else {
+                return new String(chars);
+            }
+        }
+        return string;
+    }
+
+    /**
+     * Returns true if string contains no localized letters, so {@link #simplify(String)} would not change it.
+     */
+    public static boolean isSimplified(String string) {
+        for (int i = 0; i < string.length(); i++) {
+            final char c = string.charAt(i);
+            if (simplifyChar(c) != c) {
                 return false;
             }
         }
         return true;
     }
+
+    /**
+     * Returns true if any of given words begins with query, where query may be simplified (see
+     * {@link #isSubstringSimplifiedFrom(String, String)}). Simplified forms of words must be given
+     * as well. If query has no localized letters, it is the same as checking whether any simplified
+     * word starts with it, so no letter needs to be simplified while searching.
+     *
+     * @param words            words to search in
+     * @param simplifiedWords  simplified forms of words in the same order
+     * @param query            query to search for
+     * @param isQuerySimplified result of {@link #isSimplified(String)} for query
+     */
+    public static boolean anyStartsWithSimplified(String[] words, String[] simplifiedWords, String query, boolean isQuerySimplified) {
+        for (int i = 0; i < words.length; i++) {
+            if (isQuerySimplified) {
+                if (simplifiedWords[i].startsWith(query)) {
+                    return true;
+                }
+            } else if (words[i].length() >= query.length() && isSubstringSimplifiedFrom(words[i], query)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns bits of letters in baseString that simplified letter c matches, for letters that
+     * are not in the table used by {@link #simplifiedEditDistance(String, String, int)}.
+     */
+    private static long matchesOutsideTable(String baseString, char c) {
+        long match = 0;
+        for (int i = 0; i < baseString.length(); i++) {
+            if (isCharSimplifiedFrom(baseString.charAt(i), c)) {
+                match |= 1L << i;
+            }
+        }
+        return match;
+    }
+
+    /**
+     * Computes optimal string alignment distance with a table of distances between all prefixes. It is used
+     * for strings that are too long for {@link #simplifiedEditDistance(String, String, int)}.
+     */
+    private static int simplifiedEditDistanceWithTable(String baseString, String simplifiedString) {
+        final int m = baseString.length();
+        final int n = simplifiedString.length();
+        int[][] distances = new int[m + 1][n + 1];
+        for (int i = 0; i <= m; i++) {
+            distances[i][0] = i;
+        }
+        for (int j = 0; j <= n; j++) {
+            distances[0][j] = j;
+        }
+        for (int i = 1; i <= m; i++) {
+            for (int j = 1; j <= n; j++) {
+                final char b = baseString.charAt(i - 1);
+                final char s = simplifiedString.charAt(j - 1);
+                int distance = distances[i - 1][j - 1] + (isCharSimplifiedFrom(b, s) ? 0 : 1);
+                distance = Math.min(distance, Math.min(distances[i - 1][j], distances[i][j - 1]) + 1);
+                if (i > 1 && j > 1 && isCharSimplifiedFrom(b, simplifiedString.charAt(j - 2))
+                        && isCharSimplifiedFrom(baseString.charAt(i - 2), s)) {
+                    distance = Math.min(distance, distances[i - 2][j - 2] + 1);
+                }
+                distances[i][j] = distance;
+            }
+        }
+        return distances[m][n];
+    }
+
+    private static boolean isCharSimplifiedFrom(char baseChar, char simplifiedChar){
+        return baseChar == simplifiedChar || simplifyChar(baseChar) == simplifiedChar;
+    }
 }
@@ -17,14 +17,13 @@ import android.widget.LinearLayout;
 import android.widget.TextView;
 import android.widget.Toast;
 
-import com.krikki.vocabularytrainer.DataStorageManager;
 import com.krikki.vocabularytrainer.R;
 import com.krikki.vocabularytrainer.Word;
+import com.krikki.vocabularytrainer.WordRepository;
 import com.krikki.vocabularytrainer.util.SelectableData;
 
 import org.json.JSONException;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -42,7 +41,7 @@ import androidx.core.content.ContextCompat;
 public class WordAdder extends AppCompatActivity {
     private Toolbar toolbar;
     private final Context context = this;
-    private DataStorageManager storageManager;
+    private WordRepository repository;
 
     private List<SelectableData<String>> allCategories;
     private EditingCell describedWordCell, wordTypeCell, categoriesCell;
@@ -51,6 +50,7 @@ public class WordAdder extends AppCompatActivity {
     private Drawable infoIcon, exclamationMarkIcon;
 
     private String idOfEditedWord; // null if word is being added
+    private List<Word> words; // snapshot of words from repository, used for categories and to find edited word
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -98,6 +98,8 @@ public class WordAdder extends AppCompatActivity {
                     recreate();
                 } catch (Word.UnsuccessfulWordCreationException | Word.DuplicatedIdException e) {
                     Toast.makeText(context, e.getMessage(), Toast.LENGTH_LONG).show();
+                } catch (IOException | JSONException e) {
+                    Toast.makeText(context, "Saving word failed: " + e.getMessage(), Toast.LENGTH_LONG).show();
                 }
             }
         });
@@ -109,6 +111,8 @@ public class WordAdder extends AppCompatActivity {
                 finish();
             } catch (Word.UnsuccessfulWordCreationException | Word.DuplicatedIdException e) {
                 Toast.makeText(context, e.getMessage(), Toast.LENGTH_LONG).show();
+            } catch (IOException | JSONException e) {
+                Toast.makeText(context, "Saving word failed: " + e.getMessage(), Toast.LENGTH_LONG).show();
             }
         });
 
@@ -145,7 +149,7 @@ public class WordAdder extends AppCompatActivity {
             buttonSaveAndAnother.setText("Delete");
         }
 
-        storageManager = new DataStorageManager(context);
+        repository = WordRepository.getInstance(context);
         initializeValues();
     }
 
@@ -233,38 +237,12 @@ public class WordAdder extends AppCompatActivity {
         }).show();
     }
 
-    private void removeWordFromStorage() throws Word.DuplicatedIdException, Word.UnsuccessfulWordCreationException {
-        ArrayList<Word> words;
-        try {
-            String wordsRawText = storageManager.readFromStorage(DataStorageManager.WORDS_FILE);
-            words = storageManager.convertToListOfWords(wordsRawText);
-        }catch (FileNotFoundException e1){
-            words = new ArrayList<>();
-        }catch (IOException | JSONException e){
-            Toast.makeText(context, "Exception thrown when reading: "+e.getMessage(), Toast.LENGTH_LONG).show();
-            words = new ArrayList<>();
-        }
-
-        int index = -1; // find index of existing word in the list
-        for (int i = 0; i < words.size(); i++) {
-            if(words.get(i).getId().equals(idOfEditedWord)){
-                index = i;
-                break;
-            }
-        }
-        if(index == -1){
+    private void removeWordFromStorage() throws IOException, JSONException, Word.UnsuccessfulWordCreationException, Word.DuplicatedIdException {
+        if(!repository.removeWord(idOfEditedWord)){
             Toast.makeText(this, "Removed word was not found in storage file!", Toast.LENGTH_LONG).show();
-        }else{
-            words.remove(index);
-        }
-
-        try {
-            storageManager.writeToStorage(DataStorageManager.WORDS_FILE, storageManager.convertToJson(words));
-        }catch(IOException | JSONException e){
-            e.printStackTrace();
         }
     }
-    private void saveWordToStorage() throws Word.UnsuccessfulWordCreationException, Word.DuplicatedIdException {
+    private void saveWordToStorage() throws IOException, JSONException, Word.UnsuccessfulWordCreationException, Word.DuplicatedIdException {
         final Word wordObject = new Word(wordCell.getWord());
         wordObject.setDescription(describedWordCell.getText());
         wordObject.setTranslatedWord(translatedWordCell.getWord());
@@ -277,42 +255,15 @@ public class WordAdder extends AppCompatActivity {
         wordObject.setWordType(wordTypeCell.getText());
         wordObject.setCategories(allCategories.stream().filter(SelectableData::isSelected).map(SelectableData::getData).toArray(String[]::new));
 
-        ArrayList<Word> words;
-        try {
-            String wordsRawText = storageManager.readFromStorage(DataStorageManager.WORDS_FILE);
-            words = storageManager.convertToListOfWords(wordsRawText);
-        }catch (FileNotFoundException e1){
-            words = new ArrayList<>();
-        }catch (IOException | JSONException e){
-            Toast.makeText(context, "Exception thrown when reading: "+e.getMessage(), Toast.LENGTH_LONG).show();
-            words = new ArrayList<>();
-        }
-
-
+        // only the changed word is written to storage, other words are left untouched
         if(idOfEditedWord == null){ // word is being added
-            wordObject.setIdAndAvoidDuplication(words);
-            words.add(wordObject);
+            repository.addWord(wordObject);
         }else{ // word is being edited
-            int index = -1; // find index of existing word in the list
-            for (int i = 0; i < words.size(); i++) {
-                if(words.get(i).getId().equals(idOfEditedWord)){
-                    index = i;
-                    break;
-                }
-            }
             wordObject.setId(idOfEditedWord);
-            if(index == -1){
+            if(repository.getWord(idOfEditedWord) == null){
                 Toast.makeText(this, "Edited word was not found in storage file. Adding it instead!", Toast.LENGTH_LONG).show();
-                words.add(wordObject);
-            }else{
-                words.set(index, wordObject);
             }
-        }
-
-        try {
-            storageManager.writeToStorage(DataStorageManager.WORDS_FILE, storageManager.convertToJson(words));
-        }catch(IOException | JSONException e){
-            e.printStackTrace();
+            repository.updateWord(wordObject);
         }
     }
 
@@ -328,14 +279,12 @@ public class WordAdder extends AppCompatActivity {
     }
 
     /**
-     * Initialize values is meant to be called from onCreate() method and fills the ArrayList words with
+     * Initialize values is meant to be called from onCreate() method and fills the list words with
      * words.
      */
     private void initializeValues(){
-        ArrayList<Word> words;
         try {
-            String wordsRawText = storageManager.readFromStorage(DataStorageManager.WORDS_FILE);
-            words = storageManager.convertToListOfWords(wordsRawText);
+            words = repository.getWords();
         }catch (IOException | JSONException e){
             words = new ArrayList<>();
         }catch (Word.DuplicatedIdException e){
@@ -380,7 +329,7 @@ public class WordAdder extends AppCompatActivity {
                         removeWordFromStorage();
                         Toast.makeText(context, "Removing successful", Toast.LENGTH_LONG).show();
                         finish();
-                    } catch (Word.UnsuccessfulWordCreationException | Word.DuplicatedIdException e) {
+                    } catch (IOException | JSONException | Word.UnsuccessfulWordCreationException | Word.DuplicatedIdException e) {
                         Toast.makeText(context, "Removing word failed", Toast.LENGTH_LONG).show();
                     }
                 })
@@ -0,0 +1,128 @@
+package com.krikki.vocabularytrainer;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class BinaryWordFormatTest {
+
+    @Test
+    public void writtenWordsAreReadBack() throws Exception {
+        List<Word> words = createWords();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryWordFormat.write(words, out);
+
+        ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+        List<Word> readWords = BinaryWordFormat.read(buffer);
+        assertEquals(0, buffer.remaining());
+        assertEquals(words.size(), readWords.size());
+        for (int i = 0; i < words.size(); i++) {
+            assertWordEquals(words.get(i), readWords.get(i));
+        }
+    }
+
+    @Test
+    public void emptyListIsReadBack() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryWordFormat.write(Collections.emptyList(), out);
+        assertEquals(0, BinaryWordFormat.read(ByteBuffer.wrap(out.toByteArray())).size());
+    }
+
+    @Test
+    public void singleWordIsReadBackWithoutStringTable() throws Exception {
+        for (Word word : createWords()) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            BinaryWordFormat.writeWord(out, word, null);
+            out.flush();
+
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            assertWordEquals(word, BinaryWordFormat.readWord(buffer, null));
+            assertEquals(0, buffer.remaining());
+        }
+    }
+
+    @Test
+    public void truncatedDataIsRejected() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryWordFormat.write(createWords(), out);
+        byte[] data = out.toByteArray();
+        for (int length = 0; length < data.length; length++) {
+            try {
+                BinaryWordFormat.read(ByteBuffer.wrap(Arrays.copyOf(data, length)));
+                fail("Data truncated to " + length + " bytes was read");
+            } catch (IOException expected) {
+                // truncated data must be reported as invalid format
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void otherFormatIsRejected() throws Exception {
+        BinaryWordFormat.read(ByteBuffer.wrap("[{\"word\":\"a\"}]".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static List<Word> createWords() throws Word.UnsuccessfulWordCreationException {
+        List<Word> words = new ArrayList<>();
+
+        Word minimal = new Word("word");
+        minimal.setId("a1");
+        words.add(minimal);
+
+        Word full = new Word("čevapčiči, ćevapi");
+        full.setId("b2");
+        full.setTranslatedWord("kebab,grilled meat");
+        full.setSynonym("čevap");
+        full.setTranslatedSynonym("köfte");
+        full.setDescription("minced meat, grilled");
+        full.setDemand("plural");
+        full.setTranslatedDemand("množina");
+        full.setNote("Balkan dish");
+        full.setTranslatedNote("jed");
+        full.setCategories("food,Balkan");
+        full.setWordType(Word.WordType.NOUN);
+        full.setScores(Arrays.asList(10, 0, 5, 7, 3));
+        words.add(full);
+
+        // long strings have lengths that take more than one byte
+        char[] letters = new char[300];
+        Arrays.fill(letters, 'ž');
+        Word longWord = new Word(new String(letters));
+        longWord.setId("c3");
+        longWord.setDescription(new String(letters));
+        longWord.setCategories("food");
+        longWord.setWordType(Word.WordType.INTERJECTION);
+        longWord.setScores(Collections.singletonList(4));
+        words.add(longWord);
+        return words;
+    }
+
+    private static void assertWordEquals(Word expected, Word actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertArrayEquals(expected.getWords(), actual.getWords());
+        assertArrayEquals(expected.getTranslatedWords(), actual.getTranslatedWords());
+        assertArrayEquals(expected.getSynonyms(), actual.getSynonyms());
+        assertArrayEquals(expected.getTranslatedSynonyms(), actual.getTranslatedSynonyms());
+        assertEquals(expected.getDescription(), actual.getDescription());
+        assertEquals(expected.getDemand(), actual.getDemand());
+        assertEquals(expected.getTranslatedDemand(), actual.getTranslatedDemand());
+        assertEquals(expected.getNote(), actual.getNote());
+        assertEquals(expected.getTranslatedNote(), actual.getTranslatedNote());
+        assertArrayEquals(expected.getCategories(), actual.getCategories());
+        assertEquals(expected.getWordType(), actual.getWordType());
+        assertEquals(expected.getScores(), actual.getScores());
+        assertEquals(expected.getScore(), actual.getScore());
+    }
+}
@@ -0,0 +1,112 @@
+package com.krikki.vocabularytrainer;
+
+import android.content.Context;
+import android.content.ContextWrapper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DataStorageManagerTest {
+    private File directory;
+    private Context context;
+
+    @Before
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("storage").toFile();
+        context = new FilesContext(directory);
+    }
+
+    @After
+    public void deleteDirectory() {
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void wordsAddedAfterFirstStartAreReadAgain() throws Exception {
+        DataStorageManager storageManager = new DataStorageManager(context);
+        assertEquals(0, storageManager.readWordsFromStorage().size());
+        storageManager.addWordToStorage(createWord("a"));
+        storageManager.addWordToStorage(createWord("b"));
+        storageManager.removeWordFromStorage("a");
+
+        // the same as starting the app again
+        assertEquals(Arrays.asList("b"), idsOf(new DataStorageManager(context).readWordsFromStorage()));
+        assertEquals(Arrays.asList("b"), idsOf(new DataStorageManager(context).readWordsFromStorage()));
+    }
+
+    @Test
+    public void firstStartCreatesBinaryFile() throws Exception {
+        new DataStorageManager(context).readWordsFromStorage();
+        assertTrue(new File(directory, DataStorageManager.WORDS_BINARY_FILE).exists());
+    }
+
+    @Test
+    public void journalWithoutBinaryFileIsRead() throws Exception {
+        // words saved by a version which did not create binary file on first start
+        WordJournal journal = new WordJournal(new File(directory, DataStorageManager.WORDS_JOURNAL_FILE));
+        journal.appendAdd(createWord("a"));
+        journal.appendAdd(createWord("b"));
+
+        assertEquals(Arrays.asList("a", "b"), idsOf(new DataStorageManager(context).readWordsFromStorage()));
+        assertEquals(0, journal.length());
+        assertEquals(Arrays.asList("a", "b"), idsOf(new DataStorageManager(context).readWordsFromStorage()));
+    }
+
+    private static Word createWord(String id) throws Word.UnsuccessfulWordCreationException {
+        Word word = new Word("word " + id);
+        word.setId(id);
+        word.setTranslatedWord("translation " + id);
+        return word;
+    }
+
+    private static List<String> idsOf(List<Word> words) {
+        List<String> ids = new ArrayList<>();
+        for (Word word : words) {
+            ids.add(word.getId());
+        }
+        return ids;
+    }
+
+    /**
+     * Context that keeps files in given directory.
+     */
+    private static class FilesContext extends ContextWrapper {
+        private final File directory;
+
+        private FilesContext(File directory) {
+            super(null);
+            this.directory = directory;
+        }
+
+        @Override
+        public File getFileStreamPath(String name) {
+            return new File(directory, name);
+        }
+
+        @Override
+        public FileInputStream openFileInput(String name) throws FileNotFoundException {
+            return new FileInputStream(getFileStreamPath(name));
+        }
+
+        @Override
+        public Context getApplicationContext() {
+            return this;
+        }
+    }
+}
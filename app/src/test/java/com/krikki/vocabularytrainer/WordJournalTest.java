@@ -0,0 +1,166 @@
+package com.krikki.vocabularytrainer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class WordJournalTest {
+    private File file;
+    private WordJournal journal;
+
+    @Before
+    public void createJournal() throws IOException {
+        file = File.createTempFile("words", ".journal");
+        file.delete();
+        journal = new WordJournal(file);
+    }
+
+    @After
+    public void deleteJournal() {
+        file.delete();
+    }
+
+    @Test
+    public void missingJournalChangesNothing() throws Exception {
+        List<Word> words = createWords("a", "b");
+        assertEquals(0, journal.replay(words));
+        assertEquals(Arrays.asList("a", "b"), idsOf(words));
+        assertEquals(0, journal.read().remaining());
+    }
+
+    @Test
+    public void recordsAreReplayedInOrder() throws Exception {
+        journal.appendAdd(createWord("d", "new"));
+        journal.appendUpdate(createWord("b", "changed"));
+        journal.appendDelete("a");
+        journal.appendScores("c", Arrays.asList(3, 4));
+        journal.appendUpdate(createWord("e", "added by update"));
+        journal.appendDelete("missing");
+        journal.appendScores("missing", Arrays.asList(1));
+
+        List<Word> words = createWords("a", "b", "c");
+        assertEquals(journal.length(), journal.replay(words));
+        // replaced words keep their position, added words are at the end
+        assertEquals(Arrays.asList("b", "c", "d", "e"), idsOf(words));
+        assertEquals("changed", words.get(0).getDescription());
+        assertEquals(Arrays.asList(3, 4), words.get(1).getScores());
+        assertEquals("new", words.get(2).getDescription());
+    }
+
+    @Test
+    public void removedWordCanBeAddedAgain() throws Exception {
+        journal.appendDelete("a");
+        journal.appendAdd(createWord("a", "again"));
+
+        List<Word> words = createWords("a", "b");
+        journal.replay(words);
+        assertEquals(Arrays.asList("b", "a"), idsOf(words));
+        assertEquals("again", words.get(1).getDescription());
+    }
+
+    @Test
+    public void replayingTwiceGivesSameWords() throws Exception {
+        journal.appendAdd(createWord("d", "new"));
+        journal.appendUpdate(createWord("b", "changed"));
+        journal.appendDelete("a");
+        journal.appendScores("b", Arrays.asList(7));
+
+        List<Word> words = createWords("a", "b", "c");
+        journal.replay(words);
+        List<String> ids = idsOf(words);
+        // the same as when compaction writes words file, but is interrupted before journal is deleted
+        journal.replay(words);
+        assertEquals(ids, idsOf(words));
+        assertEquals(Arrays.asList(7), words.get(0).getScores());
+    }
+
+    @Test
+    public void replayOfCopyIsSameAsReplayOfFile() throws Exception {
+        journal.appendAdd(createWord("d", "new"));
+        journal.appendDelete("b");
+
+        List<Word> fromFile = createWords("a", "b", "c");
+        List<Word> fromCopy = createWords("a", "b", "c");
+        assertEquals(journal.replay(fromFile), WordJournal.replay(fromCopy, journal.read()));
+        assertEquals(idsOf(fromFile), idsOf(fromCopy));
+    }
+
+    @Test
+    public void replayStopsAtIncompleteRecord() throws Exception {
+        journal.appendDelete("a");
+        final long completeLength = journal.length();
+        journal.appendAdd(createWord("d", "new"));
+        journal.truncate(journal.length() - 3);
+
+        List<Word> words = createWords("a", "b");
+        assertEquals(completeLength, journal.replay(words));
+        assertEquals(Arrays.asList("b"), idsOf(words));
+    }
+
+    @Test
+    public void replayStopsAtCorruptedRecord() throws Exception {
+        journal.appendDelete("a");
+        final long completeLength = journal.length();
+        journal.appendAdd(createWord("d", "new"));
+        final long corruptedPosition = journal.length() - 1;
+        journal.appendDelete("b");
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            // change last byte of added word, so that its checksum does not match
+            raf.seek(corruptedPosition);
+            final int b = raf.read();
+            raf.seek(corruptedPosition);
+            raf.write(b ^ 0x55);
+        }
+
+        List<Word> words = createWords("a", "b");
+        assertEquals(completeLength, journal.replay(words));
+        assertEquals(Arrays.asList("b"), idsOf(words));
+    }
+
+    @Test
+    public void recordsAppendedAfterTruncationAreReplayed() throws Exception {
+        journal.appendDelete("a");
+        final long completeLength = journal.length();
+        journal.appendAdd(createWord("d", "new"));
+        // incomplete record is removed, as when words are read
+        journal.truncate(completeLength);
+        journal.appendDelete("b");
+
+        List<Word> words = createWords("a", "b", "c");
+        assertEquals(journal.length(), journal.replay(words));
+        assertEquals(Arrays.asList("c"), idsOf(words));
+    }
+
+    private static Word createWord(String id, String description) throws Word.UnsuccessfulWordCreationException {
+        Word word = new Word("word " + id);
+        word.setId(id);
+        word.setTranslatedWord("translation " + id);
+        word.setDescription(description);
+        return word;
+    }
+
+    private static List<Word> createWords(String... ids) throws Word.UnsuccessfulWordCreationException {
+        List<Word> words = new ArrayList<>();
+        for (String id : ids) {
+            words.add(createWord(id, "original"));
+        }
+        return words;
+    }
+
+    private static List<String> idsOf(List<Word> words) {
+        List<String> ids = new ArrayList<>();
+        for (Word word : words) {
+            ids.add(word.getId());
+        }
+        return ids;
+    }
+}
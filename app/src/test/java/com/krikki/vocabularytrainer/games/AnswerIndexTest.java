@@ -0,0 +1,57 @@
+package com.krikki.vocabularytrainer.games;
+
+import com.krikki.vocabularytrainer.Word;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class AnswerIndexTest {
+
+    @Test
+    public void wordsWithAnswerAreFound() throws Exception {
+        Word first = createWord("čaša,kup");
+        Word second = createWord("casa");
+        Word third = createWord("kupa");
+        List<Word> words = new ArrayList<>(Arrays.asList(first, second, third));
+        AnswerIndex index = new AnswerIndex(null, CommonGameGenerator.GameType.PRIMARY_LANG);
+
+        // simplified answer matches both words, but localized letters must match
+        assertEquals(Arrays.asList(first, second), index.findWords("casa", words));
+        assertEquals(Collections.singletonList(first), index.findWords("čaša", words));
+        assertEquals(Collections.singletonList(first), index.findWords("kup", words));
+        assertEquals(Collections.emptyList(), index.findWords("cas", words));
+    }
+
+    @Test
+    public void indexFollowsChangedWords() throws Exception {
+        Word first = createWord("kup");
+        Word second = createWord("miza");
+        List<Word> words = new ArrayList<>(Arrays.asList(first, second));
+        AnswerIndex index = new AnswerIndex(null, CommonGameGenerator.GameType.PRIMARY_LANG);
+        assertEquals(Collections.singletonList(first), index.findWords("kup", words));
+
+        Word added = createWord("kup,hiša");
+        index.onWordAdded(added);
+        Word updated = createWord("stol");
+        index.onWordUpdated(second, updated);
+        index.onWordRemoved(first);
+
+        // words given to index are only used when it is first built
+        assertEquals(Collections.singletonList(added), index.findWords("kup", words));
+        assertEquals(Collections.singletonList(added), index.findWords("hisa", words));
+        assertEquals(Collections.singletonList(updated), index.findWords("stol", words));
+        assertEquals(Collections.emptyList(), index.findWords("miza", words));
+    }
+
+    private static Word createWord(String answers) throws Word.UnsuccessfulWordCreationException {
+        Word word = new Word(answers);
+        word.setTranslatedWord("translation");
+        return word;
+    }
+}
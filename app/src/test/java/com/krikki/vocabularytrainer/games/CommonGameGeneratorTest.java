@@ -0,0 +1,214 @@
+package com.krikki.vocabularytrainer.games;
+
+import com.krikki.vocabularytrainer.Word;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that questions are picked with probabilities that follow weights of words, both when they
+ * are picked from list of words and from {@link WordWeightIndex}.
+ */
+public class CommonGameGeneratorTest {
+    private static final int TRIALS = 20000;
+    private static final double TOLERANCE = 0.02;
+
+    @Test
+    public void firstQuestionFollowsWeightsInList() throws Exception {
+        assertFirstQuestionFollowsWeights(false);
+    }
+
+    @Test
+    public void firstQuestionFollowsWeightsInIndex() throws Exception {
+        assertFirstQuestionFollowsWeights(true);
+    }
+
+    @Test
+    public void inclusionFollowsWeightsInList() throws Exception {
+        assertInclusionFollowsWeights(false);
+    }
+
+    @Test
+    public void inclusionFollowsWeightsInIndex() throws Exception {
+        assertInclusionFollowsWeights(true);
+    }
+
+    @Test
+    public void equalWeightsArePickedUniformlyInList() throws Exception {
+        assertEqualWeightsArePickedUniformly(false);
+    }
+
+    @Test
+    public void equalWeightsArePickedUniformlyInIndex() throws Exception {
+        assertEqualWeightsArePickedUniformly(true);
+    }
+
+    @Test
+    public void allWordsCanBePickedFromList() throws Exception {
+        assertAllWordsCanBePicked(false);
+    }
+
+    @Test
+    public void allWordsCanBePickedFromIndex() throws Exception {
+        assertAllWordsCanBePicked(true);
+    }
+
+    @Test
+    public void indexStopsWhenNoWeightIsLeft() throws Exception {
+        List<Word> words = createWords(-1, 0, 100);
+        WordWeightIndex index = createIndex();
+        // picked words have no weight until picking is done, so there are only as many words as in index
+        List<Word> picked = index.pick(5, words, new Random(1));
+        assertEquals(3, picked.size());
+        assertEquals(3, new HashSet<>(picked).size());
+        // weights are restored after picking
+        assertEquals(3, index.pick(3, words, new Random(2)).size());
+    }
+
+    @Test
+    public void sameSeedPicksSameQuestions() throws Exception {
+        List<Word> words = createWords(-1, 0, 20, 50, 70, 100, 100, -1);
+        for (boolean useIndex : new boolean[]{false, true}) {
+            CommonGameGenerator first = createGenerator(words, useIndex, 7);
+            CommonGameGenerator second = createGenerator(words, useIndex, 7);
+            assertEquals(first.pickQuestions(4), second.pickQuestions(4));
+        }
+    }
+
+    private void assertFirstQuestionFollowsWeights(boolean useIndex) throws Exception {
+        List<Word> words = createWords(-1, 0, 20, 50, 100);
+        CommonGameGenerator generator = createGenerator(words, useIndex, 11);
+        Map<Word, Integer> counts = new IdentityHashMap<>();
+        for (int trial = 0; trial < TRIALS; trial++) {
+            counts.merge(generator.pickQuestions(1).get(0), 1, Integer::sum);
+        }
+        double totalWeight = 0;
+        for (Word word : words) {
+            totalWeight += WordWeightIndex.scoreToWeight(word.getScore());
+        }
+        for (Word word : words) {
+            final double expected = WordWeightIndex.scoreToWeight(word.getScore()) / totalWeight;
+            assertFrequency(expected, counts.getOrDefault(word, 0));
+        }
+    }
+
+    private void assertInclusionFollowsWeights(boolean useIndex) throws Exception {
+        List<Word> words = createWords(-1, 0, 20, 50, 100, 100);
+        CommonGameGenerator generator = createGenerator(words, useIndex, 13);
+        Map<Word, Integer> counts = new IdentityHashMap<>();
+        for (int trial = 0; trial < TRIALS; trial++) {
+            List<Word> picked = generator.pickQuestions(3);
+            assertEquals(3, picked.size());
+            for (Word word : picked) {
+                counts.merge(word, 1, Integer::sum);
+            }
+        }
+        double[] weights = new double[words.size()];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = WordWeightIndex.scoreToWeight(words.get(i).getScore());
+        }
+        double[] expected = new double[weights.length];
+        addInclusionProbabilities(weights, new boolean[weights.length], 3, 1, expected);
+        for (int i = 0; i < words.size(); i++) {
+            assertFrequency(expected[i], counts.getOrDefault(words.get(i), 0));
+        }
+    }
+
+    private void assertEqualWeightsArePickedUniformly(boolean useIndex) throws Exception {
+        List<Word> words = createWords(50, 50, 50, 50, 50);
+        CommonGameGenerator generator = createGenerator(words, useIndex, 17);
+        Map<Word, Integer> counts = new IdentityHashMap<>();
+        for (int trial = 0; trial < TRIALS; trial++) {
+            for (Word word : generator.pickQuestions(2)) {
+                counts.merge(word, 1, Integer::sum);
+            }
+        }
+        for (Word word : words) {
+            assertFrequency(2.0 / words.size(), counts.getOrDefault(word, 0));
+        }
+    }
+
+    private void assertAllWordsCanBePicked(boolean useIndex) throws Exception {
+        List<Word> words = createWords(-1, 0, 50, 100, 100);
+        CommonGameGenerator generator = createGenerator(words, useIndex, 19);
+        for (int trial = 0; trial < 100; trial++) {
+            List<Word> picked = generator.pickQuestions(words.size());
+            assertEquals(words.size(), picked.size());
+            assertEquals(new HashSet<>(words), new HashSet<>(picked));
+        }
+    }
+
+    private static void assertFrequency(double expected, int count) {
+        final double frequency = (double) count / TRIALS;
+        assertTrue("expected " + expected + ", but was " + frequency, Math.abs(expected - frequency) < TOLERANCE);
+    }
+
+    /**
+     * Adds probabilities that each word is among picked words, when given number of words is picked one
+     * by one, each time with probability proportional to its weight among words that were not picked yet.
+     */
+    private static void addInclusionProbabilities(double[] weights, boolean[] picked, int count,
+                                                  double probability, double[] inclusion) {
+        if (count == 0) {
+            return;
+        }
+        double remainingWeight = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (!picked[i]) {
+                remainingWeight += weights[i];
+            }
+        }
+        for (int i = 0; i < weights.length; i++) {
+            if (!picked[i]) {
+                final double pickProbability = probability * weights[i] / remainingWeight;
+                inclusion[i] += pickProbability;
+                picked[i] = true;
+                addInclusionProbabilities(weights, picked, count - 1, pickProbability, inclusion);
+                picked[i] = false;
+            }
+        }
+    }
+
+    private static CommonGameGenerator createGenerator(List<Word> words, boolean useIndex, long seed) {
+        CommonGameGenerator generator = new CommonGameGenerator(words);
+        generator.random = new Random(seed);
+        if (useIndex) {
+            generator.setWeightIndex(createIndex());
+        }
+        return generator;
+    }
+
+    private static WordWeightIndex createIndex() {
+        return new WordWeightIndex(null, EnumSet.of(CommonGameGenerator.GameType.PRIMARY_LANG,
+                CommonGameGenerator.GameType.SECONDARY_LANG));
+    }
+
+    /**
+     * Creates words with given scores. Each score is 0-100 (it is made of equal individual scores)
+     * or -1 for a word without scores.
+     */
+    private static List<Word> createWords(int... scores) throws Word.UnsuccessfulWordCreationException {
+        List<Word> words = new ArrayList<>();
+        for (int i = 0; i < scores.length; i++) {
+            Word word = new Word("word" + i);
+            word.setTranslatedWord("translation" + i);
+            if (scores[i] >= 0) {
+                for (int j = 0; j < 5; j++) {
+                    word.addNewScore(scores[i] / 10);
+                }
+            }
+            words.add(word);
+        }
+        return words;
+    }
+}
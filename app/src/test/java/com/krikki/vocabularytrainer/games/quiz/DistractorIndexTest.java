@@ -0,0 +1,135 @@
+package com.krikki.vocabularytrainer.games.quiz;
+
+import com.krikki.vocabularytrainer.Word;
+import com.krikki.vocabularytrainer.games.CommonGameGenerator.GameType;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class DistractorIndexTest {
+    // long answer, so that all answers below have similar length, but none of them looks alike
+    private static final String CORRECT_ANSWER = "kabcdefghijnop";
+
+    @Test
+    public void answersAreOrderedByLettersAtBeginningAndEnd() throws Exception {
+        List<Word> words = new ArrayList<>();
+        Word question = createWord(CORRECT_ANSWER, null);
+        words.add(question);
+        // added from the least to the most similar, so that order of words does not matter
+        words.add(createWord("kqrxyzuvwstrqs", null)); // no letters match
+        words.add(createWord("kqrxyzuvwstnop", null)); // only letters at the end match
+        words.add(createWord("kabxyzuvwstrqs", null)); // only letters at the beginning match
+        words.add(createWord("kabxyzuvwstnop", null)); // letters at the beginning and at the end match
+
+        assertEquals(Arrays.asList("kabxyzuvwstnop", "kabxyzuvwstrqs", "kqrxyzuvwstnop", "kqrxyzuvwstrqs"),
+                findSimilar(words, question, 10));
+    }
+
+    @Test
+    public void firstLetterIsMoreImportantThanOtherLetters() throws Exception {
+        List<Word> words = new ArrayList<>();
+        Word question = createWord(CORRECT_ANSWER, null);
+        words.add(question);
+        words.add(createWord("zabxyzuvwstnop", null)); // different first letter
+        words.add(createWord("kq", null)); // different length
+        words.add(createWord("kqrxyzuvwstrqs", null));
+
+        assertEquals(Arrays.asList("kqrxyzuvwstrqs", "kq", "zabxyzuvwstnop"), findSimilar(words, question, 10));
+    }
+
+    @Test
+    public void wordTypeIsMoreImportantThanLetters() throws Exception {
+        List<Word> words = new ArrayList<>();
+        Word question = createWord(CORRECT_ANSWER, Word.WordType.NOUN);
+        words.add(question);
+        words.add(createWord("kabxyzuvwstnop", Word.WordType.VERB));
+        words.add(createWord("zq", Word.WordType.NOUN));
+
+        assertEquals(Arrays.asList("zq", "kabxyzuvwstnop"), findSimilar(words, question, 10));
+    }
+
+    @Test
+    public void otherWordTypesAreSearchedInFixedOrder() throws Exception {
+        List<Word> words = new ArrayList<>();
+        Word question = createWord(CORRECT_ANSWER, Word.WordType.NOUN);
+        words.add(question);
+        words.add(createWord("kqrxyzuvwstrqa", null));
+        words.add(createWord("kqrxyzuvwstrqb", Word.WordType.VERB));
+        words.add(createWord("kqrxyzuvwstrqc", Word.WordType.ADJECTIVE));
+
+        // types in order of declaration and words without type last, so that a quiz can be repeated with a seed
+        assertEquals(Arrays.asList("kqrxyzuvwstrqc", "kqrxyzuvwstrqb", "kqrxyzuvwstrqa"), findSimilar(words, question, 10));
+    }
+
+    @Test
+    public void onlyGivenNumberOfAnswersIsFound() throws Exception {
+        List<Word> words = new ArrayList<>();
+        Word question = createWord(CORRECT_ANSWER, null);
+        words.add(question);
+        words.add(createWord("kqrxyzuvwstrqs", null));
+        words.add(createWord("kabxyzuvwstrqs", null));
+        words.add(createWord("kabxyzuvwstnop", null));
+
+        assertEquals(Arrays.asList("kabxyzuvwstnop", "kabxyzuvwstrqs"), findSimilar(words, question, 2));
+    }
+
+    @Test
+    public void lookAlikesAreFoundFirstWhenIndexIsBuilt() throws Exception {
+        List<Word> words = new ArrayList<>();
+        Word question = createWord("receive", null);
+        words.add(question);
+        words.add(createWord("rebuild", null));
+        words.add(createWord("deceive", null)); // different first letter, but looks alike
+
+        assertEquals(Arrays.asList("deceive", "rebuild"), findSimilar(words, question, 10));
+    }
+
+    @Test
+    public void wordsChangedWhileBuildingAreInIndex() throws Exception {
+        List<Word> words = new ArrayList<>();
+        Word question = createWord(CORRECT_ANSWER, null);
+        words.add(question);
+        Word removed = createWord("kabxyzuvwstnop", null);
+        words.add(removed);
+        Word updated = createWord("kqrxyzuvwstrqs", null);
+        words.add(updated);
+
+        DistractorIndex index = new DistractorIndex(null, GameType.SECONDARY_LANG, GameType.PRIMARY_LANG);
+        index.buildIfNeeded(words);
+        // changes are made before or while look-alikes are hashed
+        index.onWordAdded(createWord("kabxyzuvwstrqs", null));
+        index.onWordRemoved(removed);
+        index.onWordUpdated(updated, createWord("kqrxyzuvwstnop", null));
+        index.waitUntilBuilt();
+
+        assertEquals(Arrays.asList("kabxyzuvwstrqs", "kqrxyzuvwstnop"), answersOf(index.findSimilar(question, CORRECT_ANSWER, 10)));
+    }
+
+    private static List<String> findSimilar(List<Word> words, Word question, int count) throws Exception {
+        DistractorIndex index = new DistractorIndex(null, GameType.SECONDARY_LANG, GameType.PRIMARY_LANG);
+        index.buildIfNeeded(words);
+        index.waitUntilBuilt();
+        return answersOf(index.findSimilar(question, question.getWords()[0], count));
+    }
+
+    private static List<String> answersOf(List<DistractorIndex.Answer> found) {
+        List<String> answers = new ArrayList<>();
+        for (DistractorIndex.Answer answer : found) {
+            answers.add(answer.literalAnswer);
+        }
+        return answers;
+    }
+
+    private static Word createWord(String answer, Word.WordType wordType) throws Word.UnsuccessfulWordCreationException {
+        Word word = new Word(answer);
+        word.setId(answer);
+        word.setTranslatedWord("translation of " + answer);
+        word.setWordType(wordType);
+        return word;
+    }
+}
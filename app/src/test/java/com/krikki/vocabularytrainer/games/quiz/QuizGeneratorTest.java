@@ -0,0 +1,95 @@
+package com.krikki.vocabularytrainer.games.quiz;
+
+import com.krikki.vocabularytrainer.Word;
+import com.krikki.vocabularytrainer.games.CommonGameGenerator.GameType;
+import com.krikki.vocabularytrainer.games.WordWeightIndex;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class QuizGeneratorTest {
+
+    @Test(timeout = 10000)
+    public void firstQuestionIsShownWhileOtherTasksAreWaiting() throws Exception {
+        List<Word> words = createWords(30);
+        CountDownLatch release = new CountDownLatch(1);
+        // all threads that build indices and prepare questions are busy, so nothing else can run on them
+        DistractorIndex.buildExecutor.execute(() -> awaitRelease(release));
+        for (int i = 0; i < QuizGenerator.NUMBER_OF_QUESTIONS; i++) {
+            QuizGenerator.questionExecutor.execute(() -> awaitRelease(release));
+        }
+        try {
+            QuizGenerator generator = new QuizGenerator(words, GameType.SECONDARY_LANG, GameType.PRIMARY_LANG,
+                    createWeightIndex(), new DistractorIndex(null, GameType.SECONDARY_LANG, GameType.PRIMARY_LANG));
+            List<String> answers = generator.getAllAnswers();
+            assertEquals(4, answers.size());
+            assertEquals(4, new HashSet<>(answers).size());
+            assertEquals(generator.getQuestionWord().getLiteralAnswer(), answers.get(generator.getCorrectAnswerIndex()));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void sameSeedGivesSameQuiz() throws Exception {
+        List<Word> words = createWords(60);
+        QuizGenerator first = createSeededGenerator(words, 5);
+        QuizGenerator second = createSeededGenerator(words, 5);
+        for (int question = 0; question < QuizGenerator.NUMBER_OF_QUESTIONS; question++) {
+            assertEquals(first.getLiteralQuestion(), second.getLiteralQuestion());
+            assertEquals(first.getAllAnswers(), second.getAllAnswers());
+            assertEquals(first.getCorrectAnswerIndex(), second.getCorrectAnswerIndex());
+            if (first.hasNext()) {
+                first.next();
+                second.next();
+            }
+        }
+        assertFalse(first.hasNext());
+    }
+
+    private static QuizGenerator createSeededGenerator(List<Word> words, long seed) throws QuizGenerationException {
+        // each quiz has its own indices, which are built from the same words
+        return new QuizGenerator(words, GameType.SECONDARY_LANG, GameType.PRIMARY_LANG, createWeightIndex(),
+                new DistractorIndex(null, GameType.SECONDARY_LANG, GameType.PRIMARY_LANG), seed);
+    }
+
+    private static void awaitRelease(CountDownLatch release) {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static WordWeightIndex createWeightIndex() {
+        return new WordWeightIndex(null, EnumSet.of(GameType.PRIMARY_LANG, GameType.SECONDARY_LANG));
+    }
+
+    /**
+     * Creates words with different scores and word types, some of which look alike and some have
+     * more than one translation, so that all random choices of quiz have an effect.
+     */
+    private static List<Word> createWords(int count) throws Word.UnsuccessfulWordCreationException {
+        List<Word> words = new ArrayList<>();
+        Word.WordType[] wordTypes = Word.WordType.values();
+        for (int i = 0; i < count; i++) {
+            Word word = new Word("word" + i + (i % 3 == 0 ? ",other" + i : ""));
+            word.setId("id" + i);
+            word.setTranslatedWord("translation" + i);
+            word.setWordType(i % 4 == 0 ? null : wordTypes[i % wordTypes.length]);
+            for (int j = 0; j < i % 5; j++) {
+                word.addNewScore(i % 11);
+            }
+            words.add(word);
+        }
+        return words;
+    }
+}
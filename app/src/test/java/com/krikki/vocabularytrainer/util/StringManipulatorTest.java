@@ -0,0 +1,146 @@
+package com.krikki.vocabularytrainer.util;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class StringManipulatorTest {
+    // includes localized letters, their simplified forms and letters outside the table of simplified letters
+    private static final String ALPHABET = "acčćsšzžeCČ一丁";
+
+    @Test
+    public void editDistanceOfEmptyStrings() {
+        assertEquals(0, StringManipulator.simplifiedEditDistance("", "", 3));
+        assertEquals(3, StringManipulator.simplifiedEditDistance("", "abc", 3));
+        assertEquals(3, StringManipulator.simplifiedEditDistance("abc", "", 3));
+        assertEquals(3, StringManipulator.simplifiedEditDistance("abcd", "", 2));
+        assertEquals(3, StringManipulator.simplifiedEditDistance("", "abcd", 2));
+    }
+
+    @Test
+    public void editDistanceComparesSimplifiedLetters() {
+        assertEquals(0, StringManipulator.simplifiedEditDistance("čevapčiči", "cevapcici", 3));
+        assertEquals(0, StringManipulator.simplifiedEditDistance("čevapčiči", "čevapčiči", 3));
+        // base string is never simplified
+        assertEquals(1, StringManipulator.simplifiedEditDistance("cevapi", "čevapi", 3));
+        assertEquals(1, StringManipulator.simplifiedEditDistance("čevapi", "cveapi", 3));
+        assertEquals(1, StringManipulator.simplifiedEditDistance("一丁", "丁一", 3));
+    }
+
+    @Test
+    public void editDistanceIsLimitedByMaxDistance() {
+        assertEquals(2, StringManipulator.simplifiedEditDistance("abcdef", "uvwxyz", 1));
+        assertEquals(0, StringManipulator.simplifiedEditDistance("abcdef", "abcdef", 0));
+        assertEquals(1, StringManipulator.simplifiedEditDistance("abcdef", "abcdfe", 0));
+        assertEquals(6, StringManipulator.simplifiedEditDistance("abcdef", "uvwxyz", 10));
+    }
+
+    @Test
+    public void editDistanceMatchesDynamicProgramming() {
+        Random random = new Random(17);
+        for (int test = 0; test < 20000; test++) {
+            final String base = randomString(random, random.nextInt(test % 10 == 0 ? 100 : 12));
+            final String simplified = random.nextBoolean() ? mutate(random, base) : randomString(random, random.nextInt(12));
+            final int maxDistance = random.nextInt(8);
+            final int expected = Math.min(editDistance(base, simplified), maxDistance + 1);
+            assertEquals(base + " / " + simplified, expected,
+                    StringManipulator.simplifiedEditDistance(base, simplified, maxDistance));
+        }
+    }
+
+    @Test
+    public void editDistanceOfLongStrings() {
+        Random random = new Random(23);
+        for (int test = 0; test < 500; test++) {
+            // lengths around 64 letters, where bit-parallel algorithm stops being used
+            final String base = randomString(random, 60 + random.nextInt(10));
+            final String simplified = mutate(random, base);
+            final int maxDistance = 2 + random.nextInt(8);
+            final int expected = Math.min(editDistance(base, simplified), maxDistance + 1);
+            assertEquals(base + " / " + simplified, expected,
+                    StringManipulator.simplifiedEditDistance(base, simplified, maxDistance));
+        }
+    }
+
+    private static String randomString(Random random, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Makes a few random mistakes in string and simplifies some of its letters.
+     */
+    private static String mutate(Random random, String string) {
+        StringBuilder builder = new StringBuilder(string);
+        for (int i = 0; i < builder.length(); i++) {
+            if (random.nextInt(3) == 0) {
+                builder.setCharAt(i, StringManipulator.simplifyChar(builder.charAt(i)));
+            }
+        }
+        final int mistakes = random.nextInt(5);
+        for (int i = 0; i < mistakes; i++) {
+            final int position = random.nextInt(builder.length() + 1);
+            final char letter = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+            switch (random.nextInt(4)) {
+                case 0:
+                    builder.insert(position, letter);
+                    break;
+                case 1:
+                    if (position < builder.length()) {
+                        builder.deleteCharAt(position);
+                    }
+                    break;
+                case 2:
+                    if (position < builder.length()) {
+                        builder.setCharAt(position, letter);
+                    }
+                    break;
+                default:
+                    if (position + 1 < builder.length()) {
+                        final char c = builder.charAt(position);
+                        builder.setCharAt(position, builder.charAt(position + 1));
+                        builder.setCharAt(position + 1, c);
+                    }
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Plain optimal string alignment distance, where letter of base string matches itself and its
+     * simplified letter.
+     */
+    private static int editDistance(String base, String simplified) {
+        final int m = base.length();
+        final int n = simplified.length();
+        int[][] distances = new int[m + 1][n + 1];
+        for (int i = 0; i <= m; i++) {
+            distances[i][0] = i;
+        }
+        for (int j = 0; j <= n; j++) {
+            distances[0][j] = j;
+        }
+        for (int i = 1; i <= m; i++) {
+            for (int j = 1; j <= n; j++) {
+                int distance = distances[i - 1][j - 1] + (matches(base.charAt(i - 1), simplified.charAt(j - 1)) ? 0 : 1);
+                distance = Math.min(distance, distances[i - 1][j] + 1);
+                distance = Math.min(distance, distances[i][j - 1] + 1);
+                if (i > 1 && j > 1 && matches(base.charAt(i - 1), simplified.charAt(j - 2))
+                        && matches(base.charAt(i - 2), simplified.charAt(j - 1))) {
+                    distance = Math.min(distance, distances[i - 2][j - 2] + 1);
+                }
+                distances[i][j] = distance;
+            }
+        }
+        return distances[m][n];
+    }
+
+    private static boolean matches(char baseChar, char simplifiedChar) {
+        return baseChar == simplifiedChar || StringManipulator.simplifyChar(baseChar) == simplifiedChar;
+    }
+}